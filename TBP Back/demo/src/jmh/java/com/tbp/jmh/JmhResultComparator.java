@@ -0,0 +1,153 @@
+package com.tbp.jmh;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares two JMH JSON result files, typically the base branch and a feature branch. For each
+ * benchmark present in both it prints the scores with their error margins, the change, and the
+ * allocated bytes per operation from the gc profiler. A change counts as a regression only when
+ * the two confidence intervals do not overlap, so run-to-run noise is not reported.
+ * <p>
+ * Usage: {@code JmhResultComparator <baseline.json> <candidate.json>}. Exits with status 1 when
+ * any benchmark regressed.
+ */
+public final class JmhResultComparator {
+
+    private static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+
+    private JmhResultComparator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: JmhResultComparator <baseline.json> <candidate.json>");
+            System.exit(2);
+        }
+        Map<String, Result> baseline = read(new File(args[0]));
+        Map<String, Result> candidate = read(new File(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-70s %22s %22s %9s %21s  %s%n",
+                "Benchmark", "Baseline", "Candidate", "Change", "Alloc B/op", "Verdict");
+        for (Map.Entry<String, Result> entry : candidate.entrySet()) {
+            Result before = baseline.get(entry.getKey());
+            Result after = entry.getValue();
+            if (before == null) {
+                System.out.printf("%-70s %22s %22s%n", entry.getKey(), "-", after.formatScore());
+                continue;
+            }
+            Verdict verdict = verdict(before, after);
+            if (verdict == Verdict.SLOWER) {
+                regressions++;
+            }
+            System.out.printf("%-70s %22s %22s %+8.1f%% %21s  %s%n",
+                    entry.getKey(), before.formatScore(), after.formatScore(),
+                    (after.score() - before.score()) / before.score() * 100,
+                    formatAllocation(before, after), verdict.label);
+        }
+        for (String name : baseline.keySet()) {
+            if (!candidate.containsKey(name)) {
+                System.out.printf("%-70s %22s %22s%n", name, baseline.get(name).formatScore(), "-");
+            }
+        }
+
+        if (regressions > 0) {
+            System.out.printf("%d benchmark(s) regressed%n", regressions);
+            System.exit(1);
+        }
+    }
+
+    static Verdict verdict(Result before, Result after) {
+        boolean overlap = after.score() - after.error() <= before.score() + before.error()
+                && before.score() - before.error() <= after.score() + after.error();
+        if (overlap) {
+            return Verdict.SAME;
+        }
+        boolean higher = after.score() > before.score();
+        // Throughput is better when higher, every time-per-operation mode when lower
+        return higher == after.higherIsBetter() ? Verdict.FASTER : Verdict.SLOWER;
+    }
+
+    private static String formatAllocation(Result before, Result after) {
+        if (before.allocation() < 0 || after.allocation() < 0) {
+            return "-";
+        }
+        return String.format("%.0f -> %.0f", before.allocation(), after.allocation());
+    }
+
+    static Map<String, Result> read(File file) throws IOException {
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file)) {
+            JsonNode primary = run.path("primaryMetric");
+            String mode = run.path("mode").asText();
+            results.put(name(run), new Result(mode, primary.path("score").asDouble(),
+                    errorOf(primary), primary.path("scoreUnit").asText(), allocation(run.path("secondaryMetrics"))));
+        }
+        return results;
+    }
+
+    // Benchmark name plus its parameters, so every parameter combination is compared separately
+    private static String name(JsonNode run) {
+        StringBuilder name = new StringBuilder(run.path("benchmark").asText());
+        String prefix = "com.tbp.";
+        if (name.indexOf(prefix) == 0) {
+            name.delete(0, prefix.length());
+        }
+        Iterator<Map.Entry<String, JsonNode>> params = run.path("params").fields();
+        while (params.hasNext()) {
+            Map.Entry<String, JsonNode> param = params.next();
+            name.append(name.indexOf("[") < 0 ? " [" : ", ").append(param.getKey()).append('=').append(param.getValue().asText());
+        }
+        if (name.indexOf("[") >= 0) {
+            name.append(']');
+        }
+        return name.toString();
+    }
+
+    // JMH writes NaN as a string when there were too few iterations to compute an error
+    private static double errorOf(JsonNode metric) {
+        JsonNode error = metric.path("scoreError");
+        return error.isNumber() ? error.asDouble() : 0;
+    }
+
+    // Older JMH versions prefix the gc metrics with a middle dot, so match on the suffix
+    private static double allocation(JsonNode secondaryMetrics) {
+        Iterator<Map.Entry<String, JsonNode>> metrics = secondaryMetrics.fields();
+        while (metrics.hasNext()) {
+            Map.Entry<String, JsonNode> metric = metrics.next();
+            if (metric.getKey().endsWith(ALLOCATION_METRIC)) {
+                return metric.getValue().path("score").asDouble();
+            }
+        }
+        return -1;
+    }
+
+    record Result(String mode, double score, double error, String unit, double allocation) {
+        boolean higherIsBetter() {
+            return "thrpt".equals(mode);
+        }
+
+        String formatScore() {
+            return String.format("%.3f +- %.3f %s", score, error, unit);
+        }
+    }
+
+    enum Verdict {
+        FASTER("faster"),
+        SLOWER("SLOWER"),
+        SAME("within noise");
+
+        private final String label;
+
+        Verdict(String label) {
+            this.label = label;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.tbp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tbp.service.amadeus.AmadeusPayloads;
+import com.tbp.service.amadeus.AmadeusResponseParser;
+import com.tbp.service.amadeus.FlightOffer;
+import com.tbp.service.amadeus.HotelSummary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The work a search response does after the upstream call: turning parsed Amadeus offers into
+ * result maps, building the mock fallback, and serializing the results as the controller does.
+ * {@code offers} sizes the Amadeus payloads; 250 is the upper end of a real flight search.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SearchResultsJmh {
+
+    @Param({"10", "250"})
+    private int offers;
+
+    private final ExternalApiService externalApiService = new ExternalApiService();
+    // Configured like the Spring Boot one that writes controller responses
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private List<FlightOffer> flightOffers;
+    private List<HotelSummary> hotels;
+    private List<Map<String, Object>> flightResults;
+    private List<Map<String, Object>> hotelResults;
+
+    @Setup
+    public void setUp() throws IOException {
+        AmadeusResponseParser parser = new AmadeusResponseParser();
+        flightOffers = parser.parseFlightOffers(stream(AmadeusPayloads.flightOffers(offers, 2)));
+        hotels = parser.parseHotels(stream(AmadeusPayloads.hotelsByCity(offers, "PAR")));
+        flightResults = externalApiService.extractFlightData(flightOffers);
+        hotelResults = externalApiService.extractHotelData(hotels, "2026-11-01", "2026-11-03");
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> extractFlightData() {
+        return externalApiService.extractFlightData(flightOffers);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> extractHotelData() {
+        return externalApiService.extractHotelData(hotels, "2026-11-01", "2026-11-03");
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> mockFlightData() {
+        return externalApiService.getMockFlightData("JFK", "LAX", "2026-11-01");
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> mockHotelData() {
+        return externalApiService.getMockHotelData("PAR", "2026-11-01", "2026-11-03");
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> mockCabData() {
+        return externalApiService.getMockCabData("Airport", "Station", "2026-11-01T10:00");
+    }
+
+    @Benchmark
+    public byte[] serializeFlightResults() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(flightResults);
+    }
+
+    @Benchmark
+    public byte[] serializeHotelResults() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(hotelResults);
+    }
+
+    private static ByteArrayInputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,87 @@
+package com.tbp.service.cabs;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Position updates and nearest-driver queries per second on a city of drivers within 20 km,
+ * alone and with updating and querying threads running against the same index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgs = "-Xmx1g")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DriverIndexJmh {
+
+    private static final double LAT = 28.6139;
+    private static final double LON = 77.2090;
+    private static final double SPREAD = 0.18;
+
+    @Param({"10000"})
+    public int drivers;
+
+    private DriverIndex index;
+
+    @Setup
+    public void setUp() {
+        index = new DriverIndex(1);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < drivers; i++) {
+            index.update("D" + i, "Uber", "Standard", LAT + random.nextDouble(-SPREAD, SPREAD),
+                    LON + random.nextDouble(-SPREAD, SPREAD), true, 1);
+        }
+    }
+
+    @Benchmark
+    public void update() {
+        move();
+    }
+
+    @Benchmark
+    public List<DriverIndex.Nearby> nearest() {
+        return query();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public void mixedUpdate() {
+        move();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public List<DriverIndex.Nearby> mixedNearest() {
+        return query();
+    }
+
+    private void move() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        index.update("D" + random.nextInt(drivers), "Uber", "Standard", LAT + random.nextDouble(-SPREAD, SPREAD),
+                LON + random.nextDouble(-SPREAD, SPREAD), random.nextInt(10) != 0, 1);
+    }
+
+    private List<DriverIndex.Nearby> query() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return index.nearest(LAT + random.nextDouble(-SPREAD, SPREAD), LON + random.nextDouble(-SPREAD, SPREAD),
+                5, 10, 0);
+    }
+}
@@ -0,0 +1,69 @@
+package com.tbp.service.inventory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connecting itinerary search on a sparse network of generated airports with 8 routes each and
+ * 4 flights per route and day, between random airport pairs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgs = "-Xmx1g")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ItinerarySearchJmh {
+
+    @Param({"500", "2000"})
+    public int airportCount;
+
+    private String[] airports;
+    private GeneratedOfferInventory inventory;
+
+    @Setup
+    public void setUp() {
+        airports = new String[airportCount];
+        for (int i = 0; i < airportCount; i++) {
+            airports[i] = "" + (char) ('A' + i / 676) + (char) ('A' + i / 26 % 26) + (char) ('A' + i % 26);
+        }
+        inventory = new GeneratedOfferInventory();
+        ReflectionTestUtils.setField(inventory, "mode", OfferInventory.Mode.STANDALONE);
+        ReflectionTestUtils.setField(inventory, "seed", 42L);
+        ReflectionTestUtils.setField(inventory, "horizonDays", 7);
+        ReflectionTestUtils.setField(inventory, "airports", airports);
+        ReflectionTestUtils.setField(inventory, "routesPerAirport", 8);
+        ReflectionTestUtils.setField(inventory, "flightsPerRouteDay", 4);
+        ReflectionTestUtils.setField(inventory, "hotelsPerCity", 1);
+        ReflectionTestUtils.setField(inventory, "cabsPerHour", 1);
+        ReflectionTestUtils.setField(inventory, "maxResults", 50);
+        ReflectionTestUtils.setField(inventory, "minConnection", Duration.ofMinutes(45));
+        ReflectionTestUtils.setField(inventory, "maxLayover", Duration.ofHours(6));
+        ReflectionTestUtils.setField(inventory, "maxStops", 2);
+        ReflectionTestUtils.setField(inventory, "maxLabelsPerAirport", 16);
+        inventory.init();
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> itineraries() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return inventory.itineraries(airports[random.nextInt(airportCount)], airports[random.nextInt(airportCount)],
+                "2030-10-" + (10 + random.nextInt(19)));
+    }
+}
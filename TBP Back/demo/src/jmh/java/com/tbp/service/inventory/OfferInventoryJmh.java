@@ -0,0 +1,80 @@
+package com.tbp.service.inventory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup cost of the generated inventory at the size configured in application.properties
+ * (40 airports, about 1.1 million flights). Each call picks a random route and day.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgs = "-Xmx1g")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class OfferInventoryJmh {
+
+    private static final String[] AIRPORTS = ("DEL,BOM,BLR,MAA,HYD,CCU,GOI,PNQ,AMD,COK,JAI,LKO,ATQ,IXC,GAU,BBI,PAT,SXR,TRV,VNS,"
+            + "JFK,LAX,ORD,SFO,MIA,YYZ,LHR,CDG,FRA,AMS,MAD,FCO,DXB,DOH,SIN,BKK,HKG,NRT,SYD,JNB").split(",");
+
+    private GeneratedOfferInventory inventory;
+
+    @Setup
+    public void setUp() {
+        inventory = new GeneratedOfferInventory();
+        ReflectionTestUtils.setField(inventory, "mode", OfferInventory.Mode.STANDALONE);
+        ReflectionTestUtils.setField(inventory, "seed", 42L);
+        ReflectionTestUtils.setField(inventory, "horizonDays", 90);
+        ReflectionTestUtils.setField(inventory, "airports", AIRPORTS);
+        ReflectionTestUtils.setField(inventory, "flightsPerRouteDay", 8);
+        ReflectionTestUtils.setField(inventory, "hotelsPerCity", 200);
+        ReflectionTestUtils.setField(inventory, "cabsPerHour", 40);
+        ReflectionTestUtils.setField(inventory, "maxResults", 50);
+        inventory.init();
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> flightsByPrice() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return inventory.flights(AIRPORTS[random.nextInt(20)], AIRPORTS[20 + random.nextInt(20)], date(random),
+                OfferInventory.Sort.PRICE);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> flightsByDeparture() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return inventory.flights(AIRPORTS[random.nextInt(20)], AIRPORTS[20 + random.nextInt(20)], date(random),
+                OfferInventory.Sort.TIME);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> hotels() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return inventory.hotels(AIRPORTS[random.nextInt(AIRPORTS.length)], date(random), null, OfferInventory.Sort.PRICE);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> cabs() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return inventory.cabs("Terminal " + random.nextInt(4), "Station", date(random) + "T10:30", OfferInventory.Sort.PRICE);
+    }
+
+    private static String date(ThreadLocalRandom random) {
+        return "2030-" + (10 + random.nextInt(3)) + "-" + (10 + random.nextInt(19));
+    }
+}
@@ -0,0 +1,214 @@
+package com.tbp.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import jakarta.annotation.PreDestroy;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.classic.ExecChain;
+import org.apache.hc.client5.http.classic.ExecChainHandler;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.LeaseRequest;
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.io.entity.HttpEntityWrapper;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Outbound HTTP client shared by every upstream call (Amadeus token and searches). Connections
+ * are pooled per host and kept alive between calls, so TLS sessions are reused instead of
+ * renegotiated, and every call is bounded by pool, connect, read and total deadlines.
+ */
+@Configuration
+public class HttpClientConfig {
+
+    @Value("${upstream.http.max-connections:50}")
+    private int maxConnections;
+
+    @Value("${upstream.http.max-connections-per-route:30}")
+    private int maxConnectionsPerRoute;
+
+    @Value("${upstream.http.pool-timeout:1s}")
+    private Duration poolTimeout;
+
+    @Value("${upstream.http.connect-timeout:2s}")
+    private Duration connectTimeout;
+
+    @Value("${upstream.http.read-timeout:5s}")
+    private Duration readTimeout;
+
+    @Value("${upstream.http.total-timeout:10s}")
+    private Duration totalTimeout;
+
+    @Value("${upstream.http.keep-alive:30s}")
+    private Duration keepAlive;
+
+    @Value("${upstream.http.connection-ttl:5m}")
+    private Duration connectionTtl;
+
+    private final ScheduledThreadPoolExecutor deadlines = deadlineScheduler();
+
+    @PreDestroy
+    public void shutdown() {
+        deadlines.shutdownNow();
+    }
+
+    // Deadlines are cancelled as soon as their exchange ends; removing them right away keeps the
+    // queue at the calls in flight instead of every call of the last total-timeout
+    private static ScheduledThreadPoolExecutor deadlineScheduler() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "upstream-http-deadline");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager upstreamConnectionManager(MeterRegistry meterRegistry) {
+        TimedConnectionManager connectionManager = new TimedConnectionManager(
+                Timer.builder("upstream.http.pool.wait")
+                        .description("Time spent waiting to lease a pooled upstream connection")
+                        .register(meterRegistry));
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+        connectionManager.setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(connectTimeout))
+                .setSocketTimeout(Timeout.of(readTimeout))
+                .setTimeToLive(TimeValue.of(connectionTtl))
+                .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                .build());
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "upstream").bindTo(meterRegistry);
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient upstreamHttpClient(PoolingHttpClientConnectionManager upstreamConnectionManager) {
+        TimeValue maxKeepAlive = TimeValue.of(keepAlive);
+        return HttpClients.custom()
+                .setConnectionManager(upstreamConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(poolTimeout))
+                        .setResponseTimeout(Timeout.of(readTimeout))
+                        .build())
+                .addExecInterceptorFirst("deadline", new DeadlineExecHandler(deadlines, totalTimeout))
+                // Honour a shorter Keep-Alive from the server, but never hold a connection longer than configured
+                .setKeepAliveStrategy((response, context) -> DefaultConnectionKeepAliveStrategy.INSTANCE
+                        .getKeepAliveDuration(response, context).min(maxKeepAlive))
+                .evictExpiredConnections()
+                .evictIdleConnections(maxKeepAlive)
+                .build();
+    }
+
+    @Bean
+    public RestTemplate upstreamRestTemplate(RestTemplateBuilder builder, CloseableHttpClient upstreamHttpClient) {
+        return builder
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(upstreamHttpClient))
+                .build();
+    }
+
+    /**
+     * Aborts a request that is still running once the total deadline has passed, covering slow
+     * responses that trickle in just under the read timeout. Runs ahead of the retry and redirect
+     * handlers, so the deadline spans the whole exchange, and is cancelled once the response is
+     * closed or the exchange fails.
+     */
+    static class DeadlineExecHandler implements ExecChainHandler {
+        private final ScheduledExecutorService deadlines;
+        private final Duration totalTimeout;
+
+        DeadlineExecHandler(ScheduledExecutorService deadlines, Duration totalTimeout) {
+            this.deadlines = deadlines;
+            this.totalTimeout = totalTimeout;
+        }
+
+        @Override
+        public ClassicHttpResponse execute(ClassicHttpRequest request, ExecChain.Scope scope, ExecChain chain)
+                throws IOException, HttpException {
+            if (!(scope.originalRequest instanceof Cancellable cancellable)) {
+                return chain.proceed(request, scope);
+            }
+            ScheduledFuture<?> deadline = deadlines.schedule(cancellable::cancel, totalTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            ClassicHttpResponse response;
+            try {
+                response = chain.proceed(request, scope);
+            } catch (IOException | HttpException | RuntimeException e) {
+                deadline.cancel(false);
+                throw e;
+            }
+            HttpEntity entity = response.getEntity();
+            if (entity == null) {
+                deadline.cancel(false);
+                return response;
+            }
+            // The caller is still to read the body; closing the response closes this entity
+            response.setEntity(new HttpEntityWrapper(entity) {
+                @Override
+                public void close() throws IOException {
+                    deadline.cancel(false);
+                    super.close();
+                }
+            });
+            return response;
+        }
+    }
+
+    /**
+     * Pooling connection manager that records how long callers wait for a connection lease.
+     */
+    static class TimedConnectionManager extends PoolingHttpClientConnectionManager {
+        private final Timer leaseWait;
+
+        TimedConnectionManager(Timer leaseWait) {
+            this.leaseWait = leaseWait;
+        }
+
+        @Override
+        public LeaseRequest lease(String id, HttpRoute route, Timeout requestTimeout, Object state) {
+            LeaseRequest lease = super.lease(id, route, requestTimeout, state);
+            return new LeaseRequest() {
+                @Override
+                public ConnectionEndpoint get(Timeout timeout)
+                        throws InterruptedException, ExecutionException, TimeoutException {
+                    long start = System.nanoTime();
+                    try {
+                        return lease.get(timeout);
+                    } finally {
+                        leaseWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    }
+                }
+
+                @Override
+                public boolean cancel() {
+                    return lease.cancel();
+                }
+            };
+        }
+    }
+}
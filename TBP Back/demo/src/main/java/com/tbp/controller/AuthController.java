@@ -3,11 +3,15 @@ package com.tbp.controller;
 import com.tbp.model.User;
 import com.tbp.repository.UserRepository;
 import com.tbp.security.JwtUtil;
+import com.tbp.security.PasswordHashingService;
+import com.tbp.security.PasswordHashingService.Verification;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.Data;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.Map;
 
@@ -18,9 +22,11 @@ public class AuthController {
     @Autowired
     private UserRepository userRepo;
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashing;
     @Autowired
     private JwtUtil jwtUtil;
+    @Autowired
+    private MeterRegistry meterRegistry;
 
     @PostMapping("/register")
     public ResponseEntity<?> register(@RequestBody AuthRequest req) {
@@ -29,7 +35,7 @@ public class AuthController {
         }
         User user = new User();
         user.setEmail(req.getEmail());
-        user.setPassword(passwordEncoder.encode(req.getPassword()));
+        user.setPassword(passwordHashing.hash(req.getPassword()));
         userRepo.save(user);
         String token = jwtUtil.generateToken(user.getEmail());
         return ResponseEntity.ok(Map.of("token", token, "email", user.getEmail()));
@@ -37,20 +43,40 @@ public class AuthController {
 
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody AuthRequest req) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
         try {
             System.out.println("Login attempt for email: " + req.getEmail()); // Debug log
             User user = userRepo.findByEmail(req.getEmail())
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
-            if (!passwordEncoder.matches(req.getPassword(), user.getPassword())) {
+            Verification verification = passwordHashing.verify(req.getPassword(), user.getPassword());
+            if (!verification.matches()) {
+                outcome = "invalid";
                 return ResponseEntity.status(401).body(Map.of("error", "Invalid credentials"));
             }
+            if (verification.upgradedHash() != null) {
+                // Stored with a lower cost than we use now; replace it while we have the password
+                user.setPassword(verification.upgradedHash());
+                userRepo.save(user);
+            }
 
             String token = jwtUtil.generateToken(user.getEmail());
+            outcome = "success";
             return ResponseEntity.ok(Map.of("token", token, "email", user.getEmail()));
+        } catch (ResponseStatusException e) {
+            outcome = "rejected";
+            return ResponseEntity.status(e.getStatusCode()).header("Retry-After", "1")
+                    .body(Map.of("error", String.valueOf(e.getReason())));
         } catch (Exception e) {
             System.out.println("Login error: " + e.getMessage()); // Debug log
             return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
+        } finally {
+            sample.stop(Timer.builder("auth.login")
+                    .description("Login latency by outcome")
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
         }
     }
 
@@ -1,75 +1,103 @@
 package com.tbp.controller;
 
 import com.tbp.model.Booking;
-import com.tbp.model.User;
+import com.tbp.model.BookingSummary;
+import com.tbp.model.ProductType;
+import com.tbp.model.UserProfile;
 import com.tbp.repository.BookingRepository;
-import com.tbp.repository.UserRepository;
-import com.tbp.security.JwtUtil;
+import com.tbp.service.BookingDetails;
+import com.tbp.service.BookingService;
+import com.tbp.service.IdempotencyService;
+import com.tbp.service.UserLookupService;
 import lombok.Data;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/bookings")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = {"http://localhost:3000", "http://127.0.0.1:3000", "http://localhost:5173", "http://127.0.0.1:5173"}, allowCredentials = "true")
 public class BookingController {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int MAX_PAGE_SIZE = 200;
+
     @Autowired
     private BookingRepository bookingRepo;
     @Autowired
-    private UserRepository userRepo;
+    private BookingService bookingService;
+    @Autowired
+    private IdempotencyService idempotency;
     @Autowired
-    private JwtUtil jwtUtil;
+    private UserLookupService userLookup;
 
     @GetMapping
-    public ResponseEntity<?> getBookings(@RequestHeader(value = "Authorization", required = false) String authHeader) {
-        String email = getEmailFromHeader(authHeader);
+    public ResponseEntity<?> getBookings(@AuthenticationPrincipal String email,
+                                         @RequestParam(required = false) Long before,
+                                         @RequestParam(required = false) String type,
+                                         @RequestParam(defaultValue = "50") int limit) {
         if (email == null) {
             return ResponseEntity.status(401).body("Invalid or missing token");
         }
-        User user = userRepo.findByEmail(email).orElse(null);
+        UserProfile user = userLookup.findByEmail(email).orElse(null);
         if (user == null) {
             return ResponseEntity.status(404).body("User not found");
         }
-        List<Booking> bookings = bookingRepo.findByUser(user);
-        return ResponseEntity.ok(bookings);
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        long cursor = before != null ? before : Long.MAX_VALUE;
+        ProductType productType = null;
+        if (type != null && !type.isBlank()) {
+            productType = ProductType.fromLabel(type);
+            if (productType == null) {
+                return ResponseEntity.badRequest().body("Unknown booking type: " + type);
+            }
+        }
+        // One extra row tells us whether there is a next page
+        List<BookingSummary> page = productType == null
+                ? bookingRepo.findByUserIdAndIdLessThanOrderByIdDesc(user.id(), cursor, Limit.of(pageSize + 1))
+                : bookingRepo.findByUserIdAndProductTypeAndIdLessThanOrderByIdDesc(user.id(), productType, cursor,
+                        Limit.of(pageSize + 1));
+        if (page.size() > pageSize) {
+            page = page.subList(0, pageSize);
+            return ResponseEntity.ok()
+                    .header(NEXT_CURSOR_HEADER, String.valueOf(page.get(pageSize - 1).id()))
+                    .body(page);
+        }
+        return ResponseEntity.ok(page);
     }
 
     @PostMapping
-    public ResponseEntity<?> createBooking(@RequestHeader(value = "Authorization", required = false) String authHeader, @RequestBody BookingRequest req) {
-        String email = getEmailFromHeader(authHeader);
+    public ResponseEntity<?> createBooking(@AuthenticationPrincipal String email,
+                                           @RequestHeader(value = IdempotencyService.KEY_HEADER, required = false) String idempotencyKey,
+                                           @RequestBody BookingRequest req) {
         if (email == null) {
             return ResponseEntity.status(401).body("Invalid or missing token");
         }
-        User user = userRepo.findByEmail(email).orElse(null);
-        if (user == null) {
-            return ResponseEntity.status(404).body("User not found");
-        }
-        Booking booking = new Booking();
-        booking.setType(req.getType());
-        booking.setDetails(req.getDetails());
-        booking.setUser(user);
-        Booking saved = bookingRepo.save(booking);
-        return ResponseEntity.ok(saved);
-    }
-
-    private String getEmailFromHeader(String authHeader) {
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            return null;
-        }
-        String token = authHeader.replace("Bearer ", "");
-        try {
-            return jwtUtil.getEmailFromToken(token);
-        } catch (Exception e) {
-            return null;
-        }
+        return idempotency.execute(email, idempotencyKey, "POST /api/bookings", req, () -> {
+            UserProfile user = userLookup.findByEmail(email).orElse(null);
+            if (user == null) {
+                return ResponseEntity.status(404).body("User not found");
+            }
+            Booking booking = new Booking();
+            booking.setType(req.getType());
+            booking.setDetails(req.getDetails());
+            booking.setPrice(req.getPrice());
+            booking.setCurrency(req.getCurrency());
+            // Free-form bookings get their typed columns from the details text when it has a known format
+            BookingDetails.populate(booking);
+            return ResponseEntity.ok(bookingService.create(user, booking));
+        });
     }
 
     @Data
     public static class BookingRequest {
         private String type;
         private String details;
+        private BigDecimal price;
+        private String currency;
     }
 }
@@ -0,0 +1,100 @@
+package com.tbp.controller;
+
+import com.tbp.model.BookingSummary;
+import com.tbp.model.ProductType;
+import com.tbp.model.User;
+import com.tbp.model.UserProfile;
+import com.tbp.repository.BookingRepository;
+import com.tbp.repository.UserRepository;
+import com.tbp.service.UserLookupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Profile, booking counts and the most recent bookings in one response, for the dashboard and
+ * profile pages. The ETag is the user's {@code data_version}, which every profile and booking
+ * write bumps, so a revalidation with a current {@code If-None-Match} costs one primary-key
+ * read of the users table and never touches the bookings. The version is read before the
+ * bookings, so a body is never tagged with a version older than its data.
+ * <p>
+ * The tag is weak only because Tomcat does not compress responses with a strong one; it still
+ * changes with every write.
+ */
+@RestController
+@RequestMapping("/api/dashboard")
+@CrossOrigin(origins = {"http://localhost:3000", "http://127.0.0.1:3000", "http://localhost:5173", "http://127.0.0.1:5173"}, allowCredentials = "true")
+public class DashboardController {
+    private static final int MAX_RECENT = 50;
+    // Browsers keep the response but revalidate it on every load
+    private static final CacheControl CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
+    @Autowired
+    private UserLookupService userLookup;
+    @Autowired
+    private UserRepository userRepo;
+    @Autowired
+    private BookingRepository bookingRepo;
+
+    @GetMapping
+    public ResponseEntity<?> getDashboard(@AuthenticationPrincipal String email,
+                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                          @RequestParam(defaultValue = "10") int recent) {
+        if (email == null) {
+            return ResponseEntity.status(401).body("Invalid or missing token");
+        }
+        UserProfile cached = userLookup.findByEmail(email).orElse(null);
+        // The row itself, not the cached profile, so the body matches the version it is tagged with
+        User user = cached != null ? userRepo.findById(cached.id()).orElse(null) : null;
+        if (user == null) {
+            return ResponseEntity.status(404).body("User not found");
+        }
+        int recentCount = Math.max(0, Math.min(recent, MAX_RECENT));
+        String etag = "W/\"" + user.getId() + "-" + user.getDataVersion() + "-" + recentCount + "\"";
+        if (matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CACHE_CONTROL).build();
+        }
+
+        Map<String, Long> counts = new LinkedHashMap<>();
+        long total = 0;
+        for (Object[] row : bookingRepo.countByProductTypeForUser(user.getId())) {
+            // Bookings whose product could not be told from their type or details count as "other"
+            String type = row[0] != null ? ((ProductType) row[0]).label().toLowerCase(Locale.ROOT) : "other";
+            counts.merge(type, (Long) row[1], Long::sum);
+            total += (Long) row[1];
+        }
+        counts.put("total", total);
+        List<BookingSummary> bookings = recentCount == 0 ? List.of()
+                : bookingRepo.findByUserIdAndIdLessThanOrderByIdDesc(user.getId(), Long.MAX_VALUE, Limit.of(recentCount));
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("profile", UserProfile.of(user));
+        body.put("bookingCounts", counts);
+        body.put("recentBookings", bookings);
+        return ResponseEntity.ok().eTag(etag).cacheControl(CACHE_CONTROL).body(body);
+    }
+
+    // If-None-Match uses the weak comparison, so "x" matches W/"x"
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.equals("*") || tag.equals(etag) || ("W/" + tag).equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,16 +1,23 @@
 package com.tbp.controller;
 
 import com.tbp.model.Booking;
-import com.tbp.model.User;
-import com.tbp.repository.BookingRepository;
-import com.tbp.repository.UserRepository;
-import com.tbp.security.JwtUtil;
+import com.tbp.model.ProductType;
+import com.tbp.model.UserProfile;
+import com.tbp.service.BookingDetails;
+import com.tbp.service.BookingService;
 import com.tbp.service.ExternalApiService;
+import com.tbp.service.IdempotencyService;
+import com.tbp.service.TripSearchService;
+import com.tbp.service.TripSearchService.TripSearch;
+import com.tbp.service.UserLookupService;
+import com.tbp.service.cabs.CabEngine;
 import lombok.Data;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
 
@@ -19,13 +26,17 @@ import java.util.Map;
 @CrossOrigin(origins = {"http://localhost:3000", "http://127.0.0.1:3000", "http://localhost:5173", "http://127.0.0.1:5173"}, allowCredentials = "true")
 public class TravelController {
     @Autowired
-    private BookingRepository bookingRepo;
+    private BookingService bookingService;
     @Autowired
-    private UserRepository userRepo;
-    @Autowired
-    private JwtUtil jwtUtil;
+    private UserLookupService userLookup;
     @Autowired
     private ExternalApiService externalApiService;
+    @Autowired
+    private IdempotencyService idempotency;
+    @Autowired
+    private TripSearchService tripSearchService;
+    @Autowired
+    private CabEngine cabEngine;
 
     // -------------------- Flights --------------------
     @PostMapping("/flights/search")
@@ -44,18 +55,27 @@ public class TravelController {
     }
 
     @PostMapping("/flights/book")
-    public ResponseEntity<?> bookFlight(@RequestHeader(value = "Authorization", required = false) String authHeader,
+    public ResponseEntity<?> bookFlight(@AuthenticationPrincipal String email,
+                                        @RequestHeader(value = IdempotencyService.KEY_HEADER, required = false) String idempotencyKey,
                                         @RequestBody FlightBookingRequest req) {
-        String email = getEmailFromHeader(authHeader);
         if (email == null) return ResponseEntity.status(401).body("Invalid or missing token");
-        User user = userRepo.findByEmail(email).orElse(null);
-        if (user == null) return ResponseEntity.status(404).body("User not found");
 
-        Booking booking = new Booking();
-        booking.setType("Flight");
-        booking.setDetails("Flight " + req.getFlightNumber() + " from " + req.getFrom() + " to " + req.getTo() + " on " + req.getDepartureDate());
-        booking.setUser(user);
-        return ResponseEntity.ok(bookingRepo.save(booking));
+        return idempotency.execute(email, idempotencyKey, "POST /api/flights/book", req, () -> {
+            UserProfile user = userLookup.findByEmail(email).orElse(null);
+            if (user == null) return ResponseEntity.status(404).body("User not found");
+
+            Booking booking = new Booking();
+            booking.setType(ProductType.FLIGHT.label());
+            booking.setDetails(BookingDetails.flight(req.getFlightNumber(), req.getFrom(), req.getTo(), req.getDepartureDate()));
+            booking.setProductType(ProductType.FLIGHT);
+            booking.setOrigin(req.getFrom());
+            booking.setDestination(req.getTo());
+            booking.setStartDate(BookingDetails.parseDate(req.getDepartureDate()));
+            booking.setProviderReference(req.getFlightNumber());
+            booking.setPrice(req.getPrice());
+            booking.setCurrency(req.getCurrency());
+            return ResponseEntity.ok(bookingService.create(user, booking));
+        });
     }
 
     // -------------------- Hotels --------------------
@@ -75,18 +95,27 @@ public class TravelController {
     }
 
     @PostMapping("/hotels/book")
-    public ResponseEntity<?> bookHotel(@RequestHeader(value = "Authorization", required = false) String authHeader,
+    public ResponseEntity<?> bookHotel(@AuthenticationPrincipal String email,
+                                       @RequestHeader(value = IdempotencyService.KEY_HEADER, required = false) String idempotencyKey,
                                        @RequestBody HotelBookingRequest req) {
-        String email = getEmailFromHeader(authHeader);
         if (email == null) return ResponseEntity.status(401).body("Invalid or missing token");
-        User user = userRepo.findByEmail(email).orElse(null);
-        if (user == null) return ResponseEntity.status(404).body("User not found");
 
-        Booking booking = new Booking();
-        booking.setType("Hotel");
-        booking.setDetails("Hotel " + req.getHotel() + " in " + req.getCity() + " from " + req.getCheckIn() + " to " + req.getCheckOut());
-        booking.setUser(user);
-        return ResponseEntity.ok(bookingRepo.save(booking));
+        return idempotency.execute(email, idempotencyKey, "POST /api/hotels/book", req, () -> {
+            UserProfile user = userLookup.findByEmail(email).orElse(null);
+            if (user == null) return ResponseEntity.status(404).body("User not found");
+
+            Booking booking = new Booking();
+            booking.setType(ProductType.HOTEL.label());
+            booking.setDetails(BookingDetails.hotel(req.getHotel(), req.getCity(), req.getCheckIn(), req.getCheckOut()));
+            booking.setProductType(ProductType.HOTEL);
+            booking.setDestination(req.getCity());
+            booking.setStartDate(BookingDetails.parseDate(req.getCheckIn()));
+            booking.setEndDate(BookingDetails.parseDate(req.getCheckOut()));
+            booking.setProviderReference(req.getHotel());
+            booking.setPrice(req.getPrice());
+            booking.setCurrency(req.getCurrency());
+            return ResponseEntity.ok(bookingService.create(user, booking));
+        });
     }
 
     // -------------------- Cabs --------------------
@@ -105,27 +134,77 @@ public class TravelController {
     }
 
     @PostMapping("/cabs/book")
-    public ResponseEntity<?> bookCab(@RequestHeader(value = "Authorization", required = false) String authHeader,
+    public ResponseEntity<?> bookCab(@AuthenticationPrincipal String email,
+                                     @RequestHeader(value = IdempotencyService.KEY_HEADER, required = false) String idempotencyKey,
                                      @RequestBody CabBookingRequest req) {
-        String email = getEmailFromHeader(authHeader);
         if (email == null) return ResponseEntity.status(401).body("Invalid or missing token");
-        User user = userRepo.findByEmail(email).orElse(null);
-        if (user == null) return ResponseEntity.status(404).body("User not found");
 
-        Booking booking = new Booking();
-        booking.setType("Cab");
-        booking.setDetails("Cab from " + req.getPickup() + " to " + req.getDropoff() + " at " + req.getPickupTime());
-        booking.setUser(user);
-        return ResponseEntity.ok(bookingRepo.save(booking));
+        return idempotency.execute(email, idempotencyKey, "POST /api/cabs/book", req, () -> {
+            UserProfile user = userLookup.findByEmail(email).orElse(null);
+            if (user == null) return ResponseEntity.status(404).body("User not found");
+
+            Booking booking = new Booking();
+            booking.setType(ProductType.CAB.label());
+            booking.setDetails(BookingDetails.cab(req.getPickup(), req.getDropoff(), req.getPickupTime()));
+            booking.setProductType(ProductType.CAB);
+            booking.setOrigin(req.getPickup());
+            booking.setDestination(req.getDropoff());
+            booking.setStartDate(BookingDetails.parseDate(req.getPickupTime()));
+            booking.setPrice(req.getPrice());
+            booking.setCurrency(req.getCurrency());
+            return ResponseEntity.ok(bookingService.create(user, booking));
+        });
+    }
+
+    // Drivers report their position and availability; searches quote the nearest available ones.
+    // Only the accounts in cabs.engine.driver-accounts get here, everyone else gets 403, and each
+    // account is the driver whose id is its email, so it cannot move or withdraw other drivers
+    @PutMapping("/cabs/drivers/{driverId}/position")
+    public ResponseEntity<?> updateDriverPosition(@AuthenticationPrincipal String email,
+                                                  @PathVariable String driverId,
+                                                  @RequestBody DriverPositionRequest req) {
+        if (email == null) return ResponseEntity.status(401).body("Invalid or missing token");
+        if (!driverId.equals(email)) return notOwnDriver();
+        if (!cabEngine.enabled()) {
+            return ResponseEntity.status(503).body(Map.of("error", "Cab engine is not enabled"));
+        }
+        if (req.getLat() == null || req.getLon() == null || Math.abs(req.getLat()) > 90 || Math.abs(req.getLon()) > 180) {
+            return ResponseEntity.badRequest().body(Map.of("error", "lat and lon are required and must be valid coordinates"));
+        }
+        cabEngine.updatePosition(driverId, req.getProvider(), req.getVehicleType(), req.getLat(), req.getLon(),
+                req.getAvailable() == null || req.getAvailable());
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/cabs/drivers/{driverId}/position")
+    public ResponseEntity<?> removeDriver(@AuthenticationPrincipal String email, @PathVariable String driverId) {
+        if (email == null) return ResponseEntity.status(401).body("Invalid or missing token");
+        if (!driverId.equals(email)) return notOwnDriver();
+        cabEngine.removeDriver(driverId);
+        return ResponseEntity.noContent().build();
+    }
+
+    private static ResponseEntity<?> notOwnDriver() {
+        return ResponseEntity.status(403).body(Map.of("error", "Drivers can only report their own position"));
     }
 
-    private String getEmailFromHeader(String authHeader) {
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) return null;
-        String token = authHeader.replace("Bearer ", "");
+    // -------------------- Trips --------------------
+    @PostMapping("/trips/search")
+    public ResponseEntity<?> searchTrip(@RequestBody TripSearchRequest req) {
         try {
-            return jwtUtil.getEmailFromToken(token);
+            return ResponseEntity.ok(tripSearchService.search(TripSearch.of(
+                req.getFrom(),
+                req.getTo(),
+                req.getDepartureDate(),
+                req.getReturnDate(),
+                req.getAdults(),
+                req.getCity(),
+                req.getPickup(),
+                req.getDropoff(),
+                req.getPickupTime()
+            )));
         } catch (Exception e) {
-            return null;
+            return ResponseEntity.status(500).body(Map.of("error", "Failed to search trip: " + e.getMessage()));
         }
     }
 
@@ -141,12 +220,27 @@ public class TravelController {
         private String classType;
     }
 
+    @Data
+    public static class TripSearchRequest {
+        private String from;
+        private String to;
+        private String departureDate;
+        private String returnDate;
+        private Integer adults;
+        private String city; // Hotel city, defaults to the destination
+        private String pickup;
+        private String dropoff;
+        private String pickupTime;
+    }
+
     @Data
     public static class FlightBookingRequest {
         private String flightNumber;
         private String from;
         private String to;
         private String departureDate;
+        private BigDecimal price; // Optional, as quoted in the search result
+        private String currency;
     }
 
     @Data
@@ -164,6 +258,8 @@ public class TravelController {
         private String city;
         private String checkIn;
         private String checkOut;
+        private BigDecimal price; // Optional, as quoted in the search result
+        private String currency;
     }
 
     @Data
@@ -173,11 +269,22 @@ public class TravelController {
         private String pickupTime;
     }
 
+    @Data
+    public static class DriverPositionRequest {
+        private Double lat;
+        private Double lon;
+        private Boolean available; // Defaults to true
+        private String vehicleType;
+        private String provider;
+    }
+
     @Data
     public static class CabBookingRequest {
         private String pickup;
         private String dropoff;
         private String pickupTime;
+        private BigDecimal price; // Optional, as quoted in the search result
+        private String currency;
     }
 }
 
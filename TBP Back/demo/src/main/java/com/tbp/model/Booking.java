@@ -1,19 +1,71 @@
 package com.tbp.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
 
 @Entity
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+        // Keyset pagination of a user's bookings, optionally filtered by product
+        @Index(name = "idx_bookings_user_id", columnList = "user_id, id"),
+        @Index(name = "idx_bookings_user_product_id", columnList = "user_id, product_type, id"),
+        // Operational lookups: upcoming trips per product, bookings on a route, provider reconciliation
+        @Index(name = "idx_bookings_product_start", columnList = "product_type, start_date"),
+        @Index(name = "idx_bookings_route_start", columnList = "origin, destination, start_date"),
+        @Index(name = "idx_bookings_provider_ref", columnList = "provider_reference")
+})
 public class Booking {
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     private String type; // "Flight", "Hotel", "Cab"
-    private String details;
+    private String details; // Human-readable summary, kept for display
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "product_type", length = 16)
+    private ProductType productType;
+
+    @Column(length = 100)
+    private String origin; // Departure airport, cab pickup; null for hotels
+
+    @Column(length = 100)
+    private String destination; // Arrival airport, hotel city, cab dropoff
+
+    @Column(name = "start_date")
+    private LocalDate startDate;
+
+    @Column(name = "end_date")
+    private LocalDate endDate;
+
+    @Column(name = "provider_reference", length = 100)
+    private String providerReference; // Flight number, hotel name
+
+    @Column(precision = 12, scale = 2)
+    private BigDecimal price;
+
+    @Column(length = 3)
+    private String currency;
+
+    // Set by the backfill on legacy rows whose type and details match no product, so it skips them
+    @JsonIgnore
+    @ColumnDefault("false")
+    @Column(name = "type_unknown", nullable = false)
+    private boolean typeUnknown;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private Instant createdAt;
 
-    @ManyToOne
+    // Not serialized: bookings attach the user by reference, and the entity carries the password hash
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 }
@@ -0,0 +1,13 @@
+package com.tbp.model;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Slim read projection of a booking, without the owning user.
+ */
+public record BookingSummary(Long id, String type, String details, ProductType productType,
+                             String origin, String destination, LocalDate startDate, LocalDate endDate,
+                             String providerReference, BigDecimal price, String currency, Instant createdAt) {
+}
@@ -0,0 +1,38 @@
+package com.tbp.model;
+
+import java.util.Locale;
+
+public enum ProductType {
+    FLIGHT("Flight"),
+    HOTEL("Hotel"),
+    CAB("Cab");
+
+    private final String label;
+
+    ProductType(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Display name used in the {@code type} field the frontend renders.
+     */
+    public String label() {
+        return label;
+    }
+
+    /**
+     * Resolves a label or enum name case-insensitively; returns {@code null} for anything else.
+     */
+    public static ProductType fromLabel(String value) {
+        if (value == null) {
+            return null;
+        }
+        String normalized = value.trim().toUpperCase(Locale.ROOT);
+        for (ProductType type : values()) {
+            if (type.name().equals(normalized)) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
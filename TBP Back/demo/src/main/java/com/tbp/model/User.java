@@ -2,6 +2,7 @@ package com.tbp.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor
@@ -17,4 +18,9 @@ public class User {
     private String name;
     private String address;
     private String phone;
+
+    // Bumped on every profile or booking write, see UserRepository#incrementDataVersion
+    @ColumnDefault("0")
+    @Column(name = "data_version", nullable = false, insertable = false, updatable = false)
+    private long dataVersion;
 }
@@ -0,0 +1,11 @@
+package com.tbp.model;
+
+/**
+ * Immutable snapshot of the non-secret user fields, safe to cache and to return from the API.
+ */
+public record UserProfile(Long id, String email, String name, String address, String phone) {
+
+    public static UserProfile of(User user) {
+        return new UserProfile(user.getId(), user.getEmail(), user.getName(), user.getAddress(), user.getPhone());
+    }
+}
@@ -1,10 +1,24 @@
 package com.tbp.repository;
 
 import com.tbp.model.Booking;
-import com.tbp.model.User;
+import com.tbp.model.BookingSummary;
+import com.tbp.model.ProductType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import java.util.List;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
-    List<Booking> findByUser(User user);
+    // Keyset pages, newest first: pass the last id of the previous page as the upper bound
+    List<BookingSummary> findByUserIdAndIdLessThanOrderByIdDesc(Long userId, Long id, Limit limit);
+
+    List<BookingSummary> findByUserIdAndProductTypeAndIdLessThanOrderByIdDesc(Long userId, ProductType productType,
+                                                                              Long id, Limit limit);
+
+    // Bookings per product type, answered from the (user_id, product_type, id) index
+    @Query("select b.productType, count(b) from Booking b where b.user.id = :userId group by b.productType")
+    List<Object[]> countByProductTypeForUser(Long userId);
+
+    // Rows written before the structured columns existed, in id order for the backfill
+    List<Booking> findByProductTypeIsNullAndTypeUnknownFalseAndIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 }
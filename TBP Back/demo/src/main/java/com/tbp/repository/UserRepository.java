@@ -2,8 +2,19 @@ package com.tbp.repository;
 
 import com.tbp.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
+
+    // Atomic, so concurrent writes never lose a bump; the column is not written by entity saves
+    @Transactional
+    @Modifying
+    @Query("update User u set u.dataVersion = u.dataVersion + 1 where u.id in :ids")
+    int incrementDataVersion(Collection<Long> ids);
 }
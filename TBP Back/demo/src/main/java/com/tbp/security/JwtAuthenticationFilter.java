@@ -1,54 +1,85 @@
 package com.tbp.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
+    public static final String ROLE_DRIVER = "DRIVER";
+
+    private static final List<GrantedAuthority> DRIVER_AUTHORITIES = List.of(new SimpleGrantedAuthority("ROLE_" + ROLE_DRIVER));
+
+    // Accounts of the driver apps allowed to report driver positions, each its own
+    @Value("${cabs.engine.driver-accounts:}")
+    private Set<String> driverAccounts;
 
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Timer validTokens;
+    private Timer invalidTokens;
+
+    @PostConstruct
+    public void initMetrics() {
+        validTokens = verificationTimer("valid");
+        invalidTokens = verificationTimer("invalid");
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
                                     FilterChain filterChain) throws ServletException, IOException {
         
         final String authorizationHeader = request.getHeader("Authorization");
         
-        String email = null;
-        String jwt = null;
-        
-        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
+        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            String jwt = authorizationHeader.substring(7);
+            long start = System.nanoTime();
             try {
-                email = jwtUtil.getEmailFromToken(jwt);
-            } catch (Exception e) {
-                logger.error("JWT token validation failed: " + e.getMessage());
-            }
-        }
-        
-        if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            if (jwtUtil.validateToken(jwt, email)) {
+                // Verified exactly once per request; controllers read the principal instead of re-parsing
+                VerifiedToken token = jwtUtil.verify(jwt);
                 UsernamePasswordAuthenticationToken authToken = 
-                    new UsernamePasswordAuthenticationToken(email, null, new ArrayList<>());
+                    new UsernamePasswordAuthenticationToken(token.subject(), null,
+                            driverAccounts.contains(token.subject()) ? DRIVER_AUTHORITIES : List.of());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
+                validTokens.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            } catch (Exception e) {
+                invalidTokens.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                logger.error("JWT token validation failed: " + e.getMessage());
             }
         }
         
         filterChain.doFilter(request, response);
     }
+
+    private Timer verificationTimer(String outcome) {
+        return Timer.builder("auth.jwt.verification")
+                .description("Bearer token verification per request, including verified-token cache hits")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
 }
@@ -0,0 +1,210 @@
+package com.tbp.security;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs BCrypt on its own small thread pool so a login or sign-up burst cannot take every request
+ * thread. The pool has a bounded queue; when it is full, or a hash does not start in time,
+ * callers get 503 instead of piling up.
+ * <p>
+ * Unless {@code auth.bcrypt.strength} is set, the cost is calibrated at startup to the highest
+ * strength whose hash stays within {@code auth.bcrypt.target-latency} on this machine. Hashes
+ * stored with a lower cost are re-hashed after a successful login.
+ */
+@Service
+public class PasswordHashingService {
+    private static final Logger log = LoggerFactory.getLogger(PasswordHashingService.class);
+
+    private static final String CALIBRATION_INPUT = "calibration-password";
+
+    @Value("${auth.bcrypt.strength:-1}")
+    private int configuredStrength;
+
+    @Value("${auth.bcrypt.min-strength:10}")
+    private int minStrength;
+
+    @Value("${auth.bcrypt.max-strength:14}")
+    private int maxStrength;
+
+    @Value("${auth.bcrypt.target-latency:100ms}")
+    private Duration targetLatency;
+
+    @Value("${auth.hashing.threads:0}")
+    private int threads;
+
+    @Value("${auth.hashing.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${auth.hashing.wait-timeout:2s}")
+    private Duration waitTimeout;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private BCryptPasswordEncoder encoder;
+    private int strength;
+    private ThreadPoolExecutor executor;
+    private Timer queueWait;
+    private Timer hashTime;
+    private Timer verifyTime;
+
+    @PostConstruct
+    public void init() {
+        strength = configuredStrength > 0 ? configuredStrength : calibrate();
+        encoder = new BCryptPasswordEncoder(strength);
+
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread thread = new Thread(r, "password-hashing-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        queueWait = timer("auth.password.queue", "Time a password hash waited for a hashing thread", null);
+        hashTime = timer("auth.password.hashing", "BCrypt time per password operation", "hash");
+        verifyTime = timer("auth.password.hashing", "BCrypt time per password operation", "verify");
+        Gauge.builder("auth.password.queue.size", executor, e -> e.getQueue().size())
+                .description("Password operations waiting for a hashing thread")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * The encoder with the calibrated cost, for code that needs a plain {@link
+     * org.springframework.security.crypto.password.PasswordEncoder}.
+     */
+    public BCryptPasswordEncoder encoder() {
+        return encoder;
+    }
+
+    public int strength() {
+        return strength;
+    }
+
+    public String hash(String rawPassword) {
+        return run(() -> {
+            long start = System.nanoTime();
+            try {
+                return encoder.encode(rawPassword);
+            } finally {
+                hashTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        });
+    }
+
+    /**
+     * Checks the password and, when it matches a hash with an outdated cost, computes the
+     * replacement hash in the same task so the caller can store it.
+     */
+    public Verification verify(String rawPassword, String storedHash) {
+        return run(() -> {
+            long start = System.nanoTime();
+            boolean matches;
+            try {
+                matches = encoder.matches(rawPassword, storedHash);
+            } finally {
+                verifyTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            if (!matches || !encoder.upgradeEncoding(storedHash)) {
+                return new Verification(matches, null);
+            }
+            start = System.nanoTime();
+            try {
+                return new Verification(true, encoder.encode(rawPassword));
+            } finally {
+                hashTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        });
+    }
+
+    private <T> T run(Callable<T> task) {
+        long submitted = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                queueWait.record(System.nanoTime() - submitted, TimeUnit.NANOSECONDS);
+                return task.call();
+            });
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many sign-ins in progress, please retry", e);
+        }
+        try {
+            return future.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many sign-ins in progress, please retry", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Sign-in was interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // Each extra strength step doubles the cost, so one timed hash at the minimum is enough to extrapolate
+    private int calibrate() {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minStrength);
+        probe.encode(CALIBRATION_INPUT);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            probe.encode(CALIBRATION_INPUT);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        int chosen = minStrength;
+        long estimate = best;
+        while (chosen < maxStrength && estimate * 2 <= targetLatency.toNanos()) {
+            chosen++;
+            estimate *= 2;
+        }
+        log.info("BCrypt strength {} (about {} ms per hash, target {} ms)",
+                chosen, TimeUnit.NANOSECONDS.toMillis(estimate), targetLatency.toMillis());
+        return chosen;
+    }
+
+    private Timer timer(String name, String description, String operation) {
+        Timer.Builder builder = Timer.builder(name)
+                .description(description)
+                .publishPercentileHistogram();
+        if (operation != null) {
+            builder.tag("operation", operation);
+        }
+        return builder.register(meterRegistry);
+    }
+
+    public record Verification(boolean matches, String upgradedHash) {
+    }
+}
@@ -0,0 +1,64 @@
+package com.tbp.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies {@link RequestRateLimiter} to the public search endpoints. Runs after the JWT filter,
+ * so signed-in users are limited by subject and everyone else by client address.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+    public static final String RETRY_AFTER_HEADER = "Retry-After";
+
+    @Value("${rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Autowired
+    private RequestRateLimiter rateLimiter;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !"POST".equals(request.getMethod())
+                || rateLimiter.endpointFor(request.getRequestURI()) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String endpoint = rateLimiter.endpointFor(request.getRequestURI());
+        long waitNanos = rateLimiter.tryAcquire(endpoint, client(request), System.nanoTime());
+        if (waitNanos > 0) {
+            long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+            response.setStatus(429);
+            response.setHeader(RETRY_AFTER_HEADER, String.valueOf(retryAfterSeconds));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"Too many requests, retry in " + retryAfterSeconds + "s\"}");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private static String client(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && !(authentication instanceof AnonymousAuthenticationToken)
+                && authentication.getPrincipal() instanceof String subject) {
+            return "user:" + subject;
+        }
+        // Behind a proxy, set server.forward-headers-strategy so this is the real client address
+        return "ip:" + request.getRemoteAddr();
+    }
+}
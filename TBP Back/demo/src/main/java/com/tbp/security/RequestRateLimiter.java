@@ -0,0 +1,115 @@
+package com.tbp.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token-bucket limits per client and endpoint, implemented as GCRA: each bucket is a single
+ * {@link AtomicLong} holding the theoretical arrival time of the next request and is updated with
+ * a CAS, so concurrent requests never lock. Buckets live in a size-bounded cache that drops the
+ * least recently used clients, which only ever resets a bucket to full.
+ * <p>
+ * Each endpoint allows {@code rate-limit.<endpoint>.rate} requests per second on average and
+ * bursts of up to {@code rate-limit.<endpoint>.burst}.
+ */
+@Component
+public class RequestRateLimiter {
+    /** Rate-limited paths by endpoint name. */
+    static final Map<String, String> ENDPOINTS = new LinkedHashMap<>();
+
+    static {
+        ENDPOINTS.put("/api/flights/search", "flights");
+        ENDPOINTS.put("/api/hotels/search", "hotels");
+        ENDPOINTS.put("/api/cabs/search", "cabs");
+        ENDPOINTS.put("/api/trips/search", "trips");
+    }
+
+    @Value("${rate-limit.max-keys:100000}")
+    private long maxKeys;
+
+    @Value("${rate-limit.idle-timeout:10m}")
+    private Duration idleTimeout;
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, Limit> limits = new LinkedHashMap<>();
+    private Cache<BucketKey, AtomicLong> buckets;
+
+    @PostConstruct
+    public void init() {
+        for (String endpoint : ENDPOINTS.values()) {
+            double rate = setting(endpoint, "rate", Double.class, 5.0);
+            int burst = setting(endpoint, "burst", Integer.class, 20);
+            long interval = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+            Counter rejected = Counter.builder("rate-limit.rejected")
+                    .description("Requests refused with 429 by the per-client rate limiter")
+                    .tag("endpoint", endpoint)
+                    .register(meterRegistry);
+            limits.put(endpoint, new Limit(interval, interval * burst, rejected));
+        }
+        buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(idleTimeout)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, buckets, "rate-limit.buckets");
+    }
+
+    /**
+     * Returns the endpoint name for a rate-limited path, or {@code null}.
+     */
+    public String endpointFor(String path) {
+        return ENDPOINTS.get(path);
+    }
+
+    /**
+     * Takes one token for the client. Returns 0 when the request may proceed, otherwise the
+     * nanoseconds until it would be allowed.
+     */
+    public long tryAcquire(String endpoint, String client, long nowNanos) {
+        Limit limit = limits.get(endpoint);
+        AtomicLong bucket = buckets.get(new BucketKey(endpoint, client), key -> new AtomicLong(Long.MIN_VALUE));
+        while (true) {
+            long tat = bucket.get();
+            long base = tat == Long.MIN_VALUE ? nowNanos : Math.max(tat, nowNanos);
+            long next = base + limit.interval();
+            long earliest = next - limit.tolerance();
+            if (earliest > nowNanos) {
+                limit.rejected().increment();
+                return earliest - nowNanos;
+            }
+            if (bucket.compareAndSet(tat, next)) {
+                return 0;
+            }
+        }
+    }
+
+    private <T> T setting(String endpoint, String name, Class<T> type, T defaultValue) {
+        T fallback = environment.getProperty("rate-limit." + name, type, defaultValue);
+        return environment.getProperty("rate-limit." + endpoint + "." + name, type, fallback);
+    }
+
+    private record Limit(long interval, long tolerance, Counter rejected) {
+    }
+
+    private record BucketKey(String endpoint, String client) {
+    }
+}
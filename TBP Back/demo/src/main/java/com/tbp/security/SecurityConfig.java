@@ -1,11 +1,13 @@
 package com.tbp.security;
 
+import com.tbp.controller.BookingController;
+import com.tbp.service.IdempotencyService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -16,6 +18,7 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.beans.factory.annotation.Autowired;
+import jakarta.servlet.http.HttpServletRequest;
 import java.util.List;
 
 @Configuration
@@ -23,6 +26,12 @@ public class SecurityConfig {
     
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+
+    @Autowired
+    private Environment environment;
     
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
@@ -35,18 +44,33 @@ public class SecurityConfig {
                 .requestMatchers("/api/flights/search").permitAll()
                 .requestMatchers("/api/hotels/search").permitAll()
                 .requestMatchers("/api/cabs/search").permitAll()
+                .requestMatchers("/api/cabs/drivers/**").hasRole(JwtAuthenticationFilter.ROLE_DRIVER)
+                .requestMatchers("/api/trips/search").permitAll()
                 .requestMatchers("/actuator/health").permitAll()
+                // Only the management port serves an anonymous scrape; on any other port it needs a login
+                .requestMatchers(this::isPrometheusScrapeOnManagementPort).permitAll()
                 .requestMatchers("/error").permitAll()
                 .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
                 .anyRequest().authenticated()
             )
             .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+            .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class)
             .build();
     }
 
+    // Without a separate management.server.port, local.management.port just mirrors local.server.port
+    private boolean isPrometheusScrapeOnManagementPort(HttpServletRequest request) {
+        String managementPort = environment.getProperty("local.management.port");
+        return managementPort != null
+                && !managementPort.equals(environment.getProperty("local.server.port"))
+                && managementPort.equals(String.valueOf(request.getLocalPort()))
+                && "/actuator/prometheus".equals(request.getRequestURI());
+    }
+
+    // Same calibrated cost as the hashing service uses for logins
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(PasswordHashingService passwordHashing) {
+        return passwordHashing.encoder();
     }
 
     // Enable CORS globally
@@ -59,6 +83,8 @@ public class SecurityConfig {
                     .allowedOrigins("http://localhost:3000", "http://127.0.0.1:3000", "http://localhost:5173", "http://127.0.0.1:5173")
                     .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                     .allowedHeaders("*")
+                    .exposedHeaders(BookingController.NEXT_CURSOR_HEADER, IdempotencyService.REPLAYED_HEADER,
+                            RateLimitFilter.RETRY_AFTER_HEADER)
                     .allowCredentials(true);
             }
         };
@@ -71,6 +97,8 @@ public class SecurityConfig {
         configuration.setAllowedOrigins(List.of("http://localhost:3000", "http://127.0.0.1:3000", "http://localhost:5173", "http://127.0.0.1:5173"));
         configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(List.of("*"));
+        configuration.setExposedHeaders(List.of(BookingController.NEXT_CURSOR_HEADER, IdempotencyService.REPLAYED_HEADER,
+                RateLimitFilter.RETRY_AFTER_HEADER));
         configuration.setAllowCredentials(true);
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
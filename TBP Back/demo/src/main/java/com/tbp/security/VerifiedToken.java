@@ -0,0 +1,9 @@
+package com.tbp.security;
+
+import java.time.Instant;
+
+/**
+ * The claims of a JWT whose signature and expiry have been checked.
+ */
+public record VerifiedToken(String subject, Instant expiresAt) {
+}
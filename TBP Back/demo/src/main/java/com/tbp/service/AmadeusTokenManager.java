@@ -0,0 +1,236 @@
+package com.tbp.service;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the Amadeus OAuth access token in memory and refreshes it shortly before it expires.
+ * Callers that find no usable token share a single in-flight refresh instead of each posting
+ * to the token endpoint.
+ */
+@Component
+public class AmadeusTokenManager {
+    private static final Logger log = LoggerFactory.getLogger(AmadeusTokenManager.class);
+
+    private static final String TOKEN_PATH = "/v1/security/oauth2/token";
+    // A token this close to expiry is not handed out any more, it could expire in flight.
+    private static final long EXPIRY_MARGIN_MS = 5_000;
+
+    @Value("${amadeus.api.base-url:https://test.api.amadeus.com}")
+    private String amadeusBaseUrl;
+
+    @Value("${amadeus.api.key:}")
+    private String amadeusApiKey;
+
+    @Value("${amadeus.api.secret:}")
+    private String amadeusApiSecret;
+
+    @Value("${amadeus.token.refresh-ahead:60s}")
+    private Duration refreshAhead;
+
+    @Value("${amadeus.token.wait-timeout:5s}")
+    private Duration waitTimeout;
+
+    @Value("${amadeus.token.default-lifetime:5m}")
+    private Duration defaultLifetime;
+
+    @Value("${amadeus.token.min-refresh-delay:10s}")
+    private Duration minRefreshDelay;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UpstreamResilience resilience;
+
+    private final AtomicReference<CachedToken> current = new AtomicReference<>();
+    private final AtomicReference<CompletableFuture<CachedToken>> inFlight = new AtomicReference<>();
+
+    private ScheduledExecutorService refresher;
+    private ScheduledFuture<?> scheduledRefresh;
+    private Counter hits;
+    private Counter refreshes;
+    private Counter failures;
+
+    @PostConstruct
+    public void init() {
+        refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "amadeus-token-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        hits = counter("hit");
+        refreshes = counter("refresh");
+        failures = counter("failure");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    /**
+     * Returns a valid access token, or {@code null} when credentials are not configured or the
+     * token endpoint could not be reached.
+     */
+    public String getAccessToken() {
+        if (!isConfigured()) {
+            return null;
+        }
+
+        CachedToken token = current.get();
+        long now = System.currentTimeMillis();
+        if (token != null && token.isUsable(now)) {
+            hits.increment();
+            if (token.needsRefresh(now, refreshAhead.toMillis(), minRefreshDelay.toMillis())) {
+                refreshAsync();
+            }
+            return token.value();
+        }
+
+        try {
+            CachedToken fresh = refreshAsync().get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            return fresh.value();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("No Amadeus access token available: {}", e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Drops the given token, e.g. after Amadeus rejected it with 401, so the next caller fetches
+     * a new one. A token that has already been replaced is left alone.
+     */
+    public void invalidate(String accessToken) {
+        CachedToken token = current.get();
+        if (token != null && token.value().equals(accessToken)) {
+            current.compareAndSet(token, null);
+        }
+    }
+
+    private boolean isConfigured() {
+        return amadeusApiKey != null && !amadeusApiKey.isEmpty()
+                && amadeusApiSecret != null && !amadeusApiSecret.isEmpty();
+    }
+
+    private CompletableFuture<CachedToken> refreshAsync() {
+        while (true) {
+            CompletableFuture<CachedToken> existing = inFlight.get();
+            if (existing != null) {
+                return existing;
+            }
+            CompletableFuture<CachedToken> mine = new CompletableFuture<>();
+            if (inFlight.compareAndSet(null, mine)) {
+                refresher.execute(() -> refresh(mine));
+                return mine;
+            }
+        }
+    }
+
+    private void refresh(CompletableFuture<CachedToken> result) {
+        try {
+            CachedToken token = resilience.call(UpstreamResilience.TOKEN, this::fetchToken);
+            current.set(token);
+            refreshes.increment();
+            scheduleNextRefresh(token);
+            result.complete(token);
+        } catch (Exception e) {
+            failures.increment();
+            if (!(e instanceof CallNotPermittedException || e instanceof BulkheadFullException)) {
+                log.warn("Error getting Amadeus access token: {}", e.getMessage());
+            }
+            result.completeExceptionally(e);
+        } finally {
+            inFlight.compareAndSet(result, null);
+        }
+    }
+
+    // Runs on the refresher thread only, so the scheduled handle needs no further guarding.
+    // A lifetime shorter than refresh-ahead would otherwise schedule the next refresh immediately,
+    // over and over; callers that find the token expired in the meantime fetch one on demand.
+    private void scheduleNextRefresh(CachedToken token) {
+        if (scheduledRefresh != null) {
+            scheduledRefresh.cancel(false);
+        }
+        long delay = token.expiresAt() - refreshAhead.toMillis() - System.currentTimeMillis();
+        if (delay < minRefreshDelay.toMillis()) {
+            log.warn("Amadeus access token expires within the refresh-ahead window, next refresh in {}", minRefreshDelay);
+            delay = minRefreshDelay.toMillis();
+        }
+        scheduledRefresh = refresher.schedule(this::refreshAsync, delay, TimeUnit.MILLISECONDS);
+    }
+
+    @SuppressWarnings("rawtypes")
+    private CachedToken fetchToken() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Content-Type", "application/x-www-form-urlencoded");
+
+        String body = "grant_type=client_credentials&client_id=" + amadeusApiKey +
+                     "&client_secret=" + amadeusApiSecret;
+
+        long requestedAt = System.currentTimeMillis();
+        HttpEntity<String> entity = new HttpEntity<>(body, headers);
+        ResponseEntity<Map> response = restTemplate.exchange(amadeusBaseUrl + TOKEN_PATH, HttpMethod.POST, entity, Map.class);
+
+        Map responseBody = response.getBody();
+        if (responseBody == null || !(responseBody.get("access_token") instanceof String accessToken)) {
+            throw new IllegalStateException("Token response did not contain an access_token");
+        }
+        long expiresInSeconds = responseBody.get("expires_in") instanceof Number n ? n.longValue() : 0;
+        if (expiresInSeconds <= 0) {
+            log.warn("Token response has no positive expires_in ({}), assuming the token lasts {}",
+                    responseBody.get("expires_in"), defaultLifetime);
+            return new CachedToken(accessToken, requestedAt, requestedAt + defaultLifetime.toMillis());
+        }
+        return new CachedToken(accessToken, requestedAt, requestedAt + expiresInSeconds * 1000);
+    }
+
+    private Counter counter(String result) {
+        return Counter.builder("amadeus.token.requests")
+                .description("Amadeus access token lookups by outcome")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record CachedToken(String value, long fetchedAt, long expiresAt) {
+        boolean isUsable(long now) {
+            return now < expiresAt - EXPIRY_MARGIN_MS;
+        }
+
+        // A token living no longer than refresh-ahead is due from the start; without the minimum
+        // gap every search would start the next refresh as soon as the previous one finished
+        boolean needsRefresh(long now, long refreshAheadMs, long minRefreshDelayMs) {
+            return now >= expiresAt - refreshAheadMs && now - fetchedAt >= minRefreshDelayMs;
+        }
+    }
+}
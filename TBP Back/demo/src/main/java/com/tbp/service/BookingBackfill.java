@@ -0,0 +1,95 @@
+package com.tbp.service;
+
+import com.tbp.model.Booking;
+import com.tbp.repository.BookingRepository;
+import com.tbp.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * One-off migration that fills the typed booking columns for rows created before they existed,
+ * by parsing the free-text {@code details}. Rows are walked in id order in small transactions;
+ * once every row has a product type this is a single indexed query per startup. Rows whose type
+ * matches no product are flagged {@code type_unknown} and not scanned again. Running it on
+ * several nodes at once is harmless, they write the same values.
+ */
+@Component
+public class BookingBackfill implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(BookingBackfill.class);
+
+    @Value("${booking.backfill.enabled:true}")
+    private boolean enabled;
+
+    @Value("${booking.backfill.batch-size:500}")
+    private int batchSize;
+
+    @Autowired
+    private BookingRepository bookingRepo;
+
+    @Autowired
+    private UserRepository userRepo;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) {
+            backfill();
+        }
+    }
+
+    public int backfill() {
+        long lastId = 0;
+        int updated = 0;
+        int unparsed = 0;
+        while (true) {
+            final long after = lastId;
+            Batch batch = transactionTemplate.execute(status -> {
+                List<Booking> rows = bookingRepo.findByProductTypeIsNullAndTypeUnknownFalseAndIdGreaterThanOrderByIdAsc(after, Limit.of(batchSize));
+                int misses = 0;
+                Set<Long> owners = new HashSet<>();
+                for (Booking booking : rows) {
+                    if (!BookingDetails.populate(booking)) {
+                        misses++;
+                    }
+                    if (booking.getProductType() == null) {
+                        // Nothing the dashboard shows changed; only keep the row out of later runs
+                        booking.setTypeUnknown(true);
+                    } else if (booking.getUser() != null) {
+                        owners.add(booking.getUser().getId());
+                    }
+                }
+                // The owners' dashboards now show the new columns
+                if (!owners.isEmpty()) {
+                    userRepo.incrementDataVersion(owners);
+                }
+                return new Batch(rows.isEmpty() ? after : rows.get(rows.size() - 1).getId(), rows.size(), misses);
+            });
+            if (batch == null || batch.size() == 0) {
+                break;
+            }
+            lastId = batch.lastId();
+            updated += batch.size();
+            unparsed += batch.unparsed();
+        }
+        if (updated > 0) {
+            log.info("Backfilled structured columns for {} bookings ({} with unrecognized details)", updated, unparsed);
+        }
+        return updated;
+    }
+
+    private record Batch(long lastId, int size, int unparsed) {
+    }
+}
@@ -0,0 +1,260 @@
+package com.tbp.service;
+
+import com.tbp.model.Booking;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Collects booking inserts from concurrent requests and writes them as multi-row JDBC batches,
+ * one transaction per batch. {@code IDENTITY} ids stop Hibernate from batching, so this goes
+ * around JPA and reads the ids back from the generated keys. A batch is flushed once it is full
+ * or the first queued booking has waited {@code max-delay}. The same transaction bumps the data
+ * version of every user in the batch once.
+ */
+@Component
+public class BookingBatchWriter {
+    private static final Logger log = LoggerFactory.getLogger(BookingBatchWriter.class);
+
+    private static final String INSERT_SQL = "INSERT INTO bookings (type, details, product_type, origin, destination, "
+            + "start_date, end_date, provider_reference, price, currency, created_at, user_id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String BUMP_VERSION_SQL = "UPDATE users SET data_version = data_version + 1 WHERE id = ?";
+
+    @Value("${booking.ingest.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${booking.ingest.max-batch-size:100}")
+    private int maxBatchSize;
+
+    @Value("${booking.ingest.max-delay:5ms}")
+    private Duration maxDelay;
+
+    @Value("${booking.ingest.writers:2}")
+    private int writers;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private BlockingQueue<Pending> queue;
+    private final List<Thread> threads = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private volatile boolean running = true;
+    private DistributionSummary batchSizes;
+
+    @PostConstruct
+    public void init() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        batchSizes = DistributionSummary.builder("booking.ingest.batch.size")
+                .description("Bookings written per JDBC batch")
+                .register(meterRegistry);
+        Gauge.builder("booking.ingest.queue", queue, BlockingQueue::size)
+                .description("Bookings waiting to be written")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues the booking and returns a future completed with its generated id once the batch it
+     * joined has committed. Fails immediately with {@link RejectedExecutionException} when the
+     * queue is full. Cancelling the future withdraws the booking as long as no writer has taken it
+     * yet; once one has, {@code cancel} returns {@code false} and the insert goes ahead.
+     */
+    public CompletableFuture<Long> submit(Booking booking) {
+        startWriters();
+        Pending pending = new Pending(booking, new QueuedId());
+        if (!running || !queue.offer(pending)) {
+            pending.result().completeExceptionally(new RejectedExecutionException("Booking queue is full"));
+        }
+        return pending.result();
+    }
+
+    // Writers start on first use, so nodes running in direct mode never spawn them
+    private void startWriters() {
+        if (started.get() || !started.compareAndSet(false, true)) {
+            return;
+        }
+        for (int i = 0; i < writers; i++) {
+            Thread thread = new Thread(this::drain, "booking-batch-writer-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        Pending leftover;
+        while ((leftover = queue.poll()) != null) {
+            leftover.result().completeExceptionally(new RejectedExecutionException("Booking writer stopped"));
+        }
+    }
+
+    private void drain() {
+        List<Pending> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelay.toNanos();
+                while (batch.size() < maxBatchSize) {
+                    // Take whatever is already queued, then wait out the rest of the delay for more
+                    if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    Pending next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                // Bookings whose requests gave up waiting are dropped, not inserted behind their back
+                batch.removeIf(pending -> !pending.result().claim());
+                if (!batch.isEmpty()) {
+                    write(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        batchSizes.record(batch.size());
+        try {
+            List<Long> ids = transactionTemplate.execute(status -> jdbcTemplate.execute(
+                    (Connection connection) -> insert(connection, batch)));
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result().complete(ids.get(i));
+            }
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).result().completeExceptionally(e);
+                return;
+            }
+            // One bad row rolls back the whole batch; retry one by one so only that request fails
+            log.warn("Booking batch of {} failed, retrying individually: {}", batch.size(), e.getMessage());
+            for (Pending pending : batch) {
+                write(List.of(pending));
+            }
+        }
+    }
+
+    private static List<Long> insert(Connection connection, List<Pending> batch) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            for (Pending pending : batch) {
+                bind(ps, pending.booking());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            List<Long> ids = new ArrayList<>(batch.size());
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                while (keys.next()) {
+                    ids.add(keys.getLong(1));
+                }
+            }
+            if (ids.size() != batch.size()) {
+                throw new SQLException("Expected " + batch.size() + " generated keys but got " + ids.size());
+            }
+            bumpVersions(connection, batch);
+            return ids;
+        }
+    }
+
+    private static void bumpVersions(Connection connection, List<Pending> batch) throws SQLException {
+        Set<Long> userIds = new LinkedHashSet<>();
+        for (Pending pending : batch) {
+            if (pending.booking().getUser() != null) {
+                userIds.add(pending.booking().getUser().getId());
+            }
+        }
+        if (userIds.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement ps = connection.prepareStatement(BUMP_VERSION_SQL)) {
+            for (Long userId : userIds) {
+                ps.setLong(1, userId);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private static void bind(PreparedStatement ps, Booking booking) throws SQLException {
+        ps.setString(1, booking.getType());
+        ps.setString(2, booking.getDetails());
+        ps.setString(3, booking.getProductType() != null ? booking.getProductType().name() : null);
+        ps.setString(4, booking.getOrigin());
+        ps.setString(5, booking.getDestination());
+        ps.setObject(6, booking.getStartDate() != null ? Date.valueOf(booking.getStartDate()) : null, Types.DATE);
+        ps.setObject(7, booking.getEndDate() != null ? Date.valueOf(booking.getEndDate()) : null, Types.DATE);
+        ps.setString(8, booking.getProviderReference());
+        ps.setBigDecimal(9, booking.getPrice());
+        ps.setString(10, booking.getCurrency());
+        ps.setTimestamp(11, booking.getCreatedAt() != null ? Timestamp.from(booking.getCreatedAt()) : null);
+        ps.setObject(12, booking.getUser() != null ? booking.getUser().getId() : null, Types.BIGINT);
+    }
+
+    private record Pending(Booking booking, QueuedId result) {
+    }
+
+    // Cancelling and being taken by a writer exclude each other, so a cancelled booking is never written
+    private static final class QueuedId extends CompletableFuture<Long> {
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            return claim() && super.cancel(mayInterruptIfRunning);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.tbp.service;
+
+import com.tbp.model.Booking;
+import com.tbp.model.ProductType;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Builds the display summary stored in {@code details} and, for rows written before the typed
+ * columns existed, recovers those columns from it.
+ */
+public final class BookingDetails {
+    private static final Pattern FLIGHT = Pattern.compile("^Flight (\\S+) from (.+?) to (.+?) on (\\S+)$");
+    private static final Pattern HOTEL = Pattern.compile("^Hotel (.+) in (.+?) from (\\S+) to (\\S+)$");
+    private static final Pattern CAB = Pattern.compile("^Cab from (.+?) to (.+) at (\\S+)$");
+
+    private BookingDetails() {
+    }
+
+    public static String flight(String flightNumber, String from, String to, String departureDate) {
+        return "Flight " + flightNumber + " from " + from + " to " + to + " on " + departureDate;
+    }
+
+    public static String hotel(String hotel, String city, String checkIn, String checkOut) {
+        return "Hotel " + hotel + " in " + city + " from " + checkIn + " to " + checkOut;
+    }
+
+    public static String cab(String pickup, String dropoff, String pickupTime) {
+        return "Cab from " + pickup + " to " + dropoff + " at " + pickupTime;
+    }
+
+    /**
+     * Fills the product type from the {@code type} label and the route, dates and provider
+     * reference from {@code details} when it matches one of the formats above. Fields that are
+     * already set are left alone. Returns whether {@code details} could be parsed.
+     */
+    public static boolean populate(Booking booking) {
+        if (booking.getProductType() == null) {
+            booking.setProductType(ProductType.fromLabel(booking.getType()));
+        }
+        String details = booking.getDetails() == null ? "" : booking.getDetails().trim();
+        Matcher m;
+        if ((m = FLIGHT.matcher(details)).matches()) {
+            apply(booking, ProductType.FLIGHT, m.group(2), m.group(3), parseDate(m.group(4)), null, m.group(1));
+        } else if ((m = HOTEL.matcher(details)).matches()) {
+            apply(booking, ProductType.HOTEL, null, m.group(2), parseDate(m.group(3)), parseDate(m.group(4)), m.group(1));
+        } else if ((m = CAB.matcher(details)).matches()) {
+            apply(booking, ProductType.CAB, m.group(1), m.group(2), parseDate(m.group(3)), null, null);
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Parses the leading {@code yyyy-MM-dd} of a date or {@code datetime-local} value; returns
+     * {@code null} for blanks and anything unparseable.
+     */
+    public static LocalDate parseDate(String value) {
+        if (value == null || value.length() < 10) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value.substring(0, 10));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static void apply(Booking booking, ProductType type, String origin, String destination,
+                              LocalDate start, LocalDate end, String providerReference) {
+        if (booking.getProductType() == null) {
+            booking.setProductType(type);
+        }
+        if (booking.getOrigin() == null) {
+            booking.setOrigin(origin);
+        }
+        if (booking.getDestination() == null) {
+            booking.setDestination(destination);
+        }
+        if (booking.getStartDate() == null) {
+            booking.setStartDate(start);
+        }
+        if (booking.getEndDate() == null) {
+            booking.setEndDate(end);
+        }
+        if (booking.getProviderReference() == null) {
+            booking.setProviderReference(providerReference);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.tbp.service;
+
+import com.tbp.model.Booking;
+import com.tbp.model.UserProfile;
+import com.tbp.repository.BookingRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Persists new bookings. In {@code direct} mode every booking is its own JPA save; in
+ * {@code batched} mode requests hand their booking to {@link BookingBatchWriter} and wait for
+ * the id, so a burst of bookings shares a few connections and round-trips. Either way the
+ * user's data version is bumped in the transaction that inserts the booking.
+ */
+@Service
+public class BookingService {
+
+    @Value("${booking.ingest.mode:direct}")
+    private String mode;
+
+    @Value("${booking.ingest.wait-timeout:5s}")
+    private Duration waitTimeout;
+
+    @Autowired
+    private BookingRepository bookingRepo;
+
+    @Autowired
+    private BookingBatchWriter batchWriter;
+
+    @Autowired
+    private UserLookupService userLookup;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    public Booking create(UserProfile user, Booking booking) {
+        booking.setUser(userLookup.reference(user));
+        if (!"batched".equalsIgnoreCase(mode)) {
+            return transactionTemplate.execute(status -> {
+                Booking saved = bookingRepo.save(booking);
+                userLookup.dataChanged(user.id());
+                return saved;
+            });
+        }
+        // Matches what @CreationTimestamp would store at the database's precision
+        booking.setCreatedAt(Instant.now().truncatedTo(ChronoUnit.MICROS));
+        CompletableFuture<Long> id = batchWriter.submit(booking);
+        try {
+            booking.setId(awaitId(id));
+            return booking;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            id.cancel(false);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Booking was interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many bookings in progress", e);
+            }
+            throw new IllegalStateException("Booking could not be saved", e.getCause());
+        }
+    }
+
+    // A timed-out 503 must mean nothing was stored, since failed responses are not kept for Idempotency-Key
+    // retries: a booking no writer has taken yet is withdrawn, one already being written is awaited
+    private Long awaitId(CompletableFuture<Long> id) throws InterruptedException, ExecutionException {
+        try {
+            return id.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (id.cancel(false)) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Booking timed out", e);
+            }
+            return id.get();
+        }
+    }
+}
@@ -1,180 +1,290 @@
 package com.tbp.service;
 
+import com.tbp.service.amadeus.AmadeusResponseParser;
+import com.tbp.service.amadeus.FlightOffer;
+import com.tbp.service.amadeus.HotelOffer;
+import com.tbp.service.amadeus.HotelSummary;
+import com.tbp.service.cabs.CabEngine;
+import com.tbp.service.inventory.OfferInventory;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
-import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class ExternalApiService {
     
-    private final RestTemplate restTemplate;
+    @Value("${amadeus.api.base-url:https://test.api.amadeus.com}")
+    private String amadeusBaseUrl;
     
-    @Value("${amadeus.api.key:}")
-    private String amadeusApiKey;
+    @Autowired
+    private RestTemplate restTemplate;
     
-    @Value("${amadeus.api.secret:}")
-    private String amadeusApiSecret;
+    @Autowired
+    private AmadeusTokenManager tokenManager;
     
+    @Autowired
+    private SearchResultCache searchCache;
     
-    public ExternalApiService() {
-        this.restTemplate = new RestTemplate();
-    }
+    @Autowired
+    private AmadeusResponseParser responseParser;
+    
+    @Autowired
+    private UpstreamResilience resilience;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private OfferInventory inventory;
+    
+    @Autowired
+    private CabEngine cabEngine;
+    
+    @Autowired
+    private HotelPricing hotelPricing;
+    
+    @Value("${hotel.pricing.max-hotels:50}")
+    private int maxPricedHotels;
     
     // Amadeus Flight Search API
     public List<Map<String, Object>> searchFlights(String origin, String destination, String departureDate, int adults) {
+        long start = System.nanoTime();
+        if (inventory.mode() == OfferInventory.Mode.STANDALONE) {
+            List<Map<String, Object>> flights = inventoryFlights(origin, destination, departureDate);
+            recordSearch("flights", "inventory", start);
+            return flights;
+        }
         try {
-            // Get access token first
-            String accessToken = getAmadeusAccessToken();
-            if (accessToken == null) {
-                return getMockFlightData(origin, destination, departureDate);
-            }
-            
-            String url = "https://test.api.amadeus.com/v2/shopping/flight-offers";
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", "Bearer " + accessToken);
-            
-            UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(url)
-                    .queryParam("originLocationCode", origin)
-                    .queryParam("destinationLocationCode", destination)
-                    .queryParam("departureDate", departureDate)
-                    .queryParam("adults", adults)
-                    .queryParam("max", 10);
-            
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-            ResponseEntity<Map> response = restTemplate.exchange(
-                    builder.toUriString(), HttpMethod.GET, entity, Map.class);
-            
-            if (response.getBody() != null) {
-                return extractFlightData(response.getBody());
+            List<Map<String, Object>> flights = searchCache.getFlights(origin, destination, departureDate, adults,
+                    () -> fetchFlights(origin, destination, departureDate, adults));
+            if (flights != null) {
+                recordSearch("flights", "amadeus", start);
+                return flights;
             }
+        } catch (CallNotPermittedException | BulkheadFullException e) {
+            // Circuit open or provider saturated: answer from the fallback right away
         } catch (Exception e) {
             System.err.println("Error calling Amadeus API: " + e.getMessage());
         }
         
-        return getMockFlightData(origin, destination, departureDate);
+        if (inventory.mode() == OfferInventory.Mode.FALLBACK) {
+            List<Map<String, Object>> flights = inventoryFlights(origin, destination, departureDate);
+            recordSearch("flights", "inventory", start);
+            return flights;
+        }
+        List<Map<String, Object>> mock = getMockFlightData(origin, destination, departureDate);
+        recordSearch("flights", "mock", start);
+        return mock;
+    }
+    
+    // Direct flights when the route has them, connecting itineraries otherwise
+    private List<Map<String, Object>> inventoryFlights(String origin, String destination, String departureDate) {
+        List<Map<String, Object>> flights = inventory.flights(origin, destination, departureDate, OfferInventory.Sort.PRICE);
+        return flights.isEmpty() ? inventory.itineraries(origin, destination, departureDate) : flights;
     }
     
     // Amadeus Hotel Search API
     public List<Map<String, Object>> searchHotels(String cityCode, String checkIn, String checkOut, int adults) {
+        long start = System.nanoTime();
+        if (inventory.mode() == OfferInventory.Mode.STANDALONE) {
+            List<Map<String, Object>> hotels = inventory.hotels(cityCode, checkIn, checkOut, OfferInventory.Sort.PRICE);
+            recordSearch("hotels", "inventory", start);
+            return hotels;
+        }
         try {
-            String accessToken = getAmadeusAccessToken();
-            if (accessToken == null) {
-                return getMockHotelData(cityCode, checkIn, checkOut);
-            }
-            
-            String url = "https://test.api.amadeus.com/v1/reference-data/locations/hotels/by-city";
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", "Bearer " + accessToken);
-            
-            UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(url)
-                    .queryParam("cityCode", cityCode);
-            
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-            ResponseEntity<Map> response = restTemplate.exchange(
-                    builder.toUriString(), HttpMethod.GET, entity, Map.class);
-            
-            if (response.getBody() != null) {
-                return extractHotelData(response.getBody(), checkIn, checkOut);
+            List<Map<String, Object>> hotels = searchCache.getHotels(cityCode, checkIn, checkOut, adults,
+                    () -> fetchHotels(cityCode, checkIn, checkOut));
+            if (hotels != null) {
+                List<Map<String, Object>> priced = priceHotels(hotels, checkIn, checkOut, adults);
+                recordSearch("hotels", "amadeus", start);
+                return priced;
             }
+        } catch (CallNotPermittedException | BulkheadFullException e) {
+            // Circuit open or provider saturated: answer from the fallback right away
         } catch (Exception e) {
             System.err.println("Error calling Amadeus Hotel API: " + e.getMessage());
         }
         
-        return getMockHotelData(cityCode, checkIn, checkOut);
+        if (inventory.mode() == OfferInventory.Mode.FALLBACK) {
+            List<Map<String, Object>> hotels = inventory.hotels(cityCode, checkIn, checkOut, OfferInventory.Sort.PRICE);
+            recordSearch("hotels", "inventory", start);
+            return hotels;
+        }
+        List<Map<String, Object>> mock = getMockHotelData(cityCode, checkIn, checkOut);
+        recordSearch("hotels", "mock", start);
+        return mock;
     }
     
-    // Mock Cab/Taxi service (using a generic transportation API or mock data)
-    public List<Map<String, Object>> searchCabs(String pickup, String dropoff, String pickupTime) {
-        // For cabs, we'll use mock data since most cab APIs require specific partnerships
-        return getMockCabData(pickup, dropoff, pickupTime);
+    // source is "amadeus" for live or cached Amadeus results, "engine" for cab quotes from driver positions,
+    // "inventory" or "mock" for the fallbacks
+    private void recordSearch(String product, String source, long start) {
+        Timer.builder("search.requests")
+                .description("Search latency per product and where the results came from")
+                .tag("product", product)
+                .tag("source", source)
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
     }
     
-    private String getAmadeusAccessToken() {
-        try {
-            if (amadeusApiKey == null || amadeusApiKey.isEmpty() || 
-                amadeusApiSecret == null || amadeusApiSecret.isEmpty()) {
-                return null;
-            }
-            
-            String url = "https://test.api.amadeus.com/v1/security/oauth2/token";
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Content-Type", "application/x-www-form-urlencoded");
-            
-            String body = "grant_type=client_credentials&client_id=" + amadeusApiKey + 
-                         "&client_secret=" + amadeusApiSecret;
-            
-            HttpEntity<String> entity = new HttpEntity<>(body, headers);
-            ResponseEntity<Map> response = restTemplate.exchange(
-                    url, HttpMethod.POST, entity, Map.class);
-            
-            if (response.getBody() != null) {
-                return (String) response.getBody().get("access_token");
-            }
-        } catch (Exception e) {
-            System.err.println("Error getting Amadeus access token: " + e.getMessage());
+    // Returns null when Amadeus is not usable, so the caller falls back to mock data
+    private List<Map<String, Object>> fetchFlights(String origin, String destination, String departureDate, int adults) {
+        // Get access token first
+        String accessToken = tokenManager.getAccessToken();
+        if (accessToken == null) {
+            return null;
         }
-        return null;
+        
+        String url = amadeusBaseUrl + "/v2/shopping/flight-offers?originLocationCode={origin}"
+                + "&destinationLocationCode={destination}&departureDate={departureDate}&adults={adults}&max=10";
+        
+        List<FlightOffer> offers = resilience.call(UpstreamResilience.FLIGHT_OFFERS,
+                () -> get(url, accessToken, responseParser::parseFlightOffers, origin, destination, departureDate, adults));
+        return offers != null ? extractFlightData(offers) : null;
     }
     
-    @SuppressWarnings("unchecked")
-    private List<Map<String, Object>> extractFlightData(Map<String, Object> response) {
-        // Extract flight data from Amadeus response
-        List<Map<String, Object>> flights = (List<Map<String, Object>>) response.get("data");
-        if (flights == null) return getMockFlightData("", "", "");
+    private List<Map<String, Object>> fetchHotels(String cityCode, String checkIn, String checkOut) {
+        String accessToken = tokenManager.getAccessToken();
+        if (accessToken == null) {
+            return null;
+        }
         
-        return flights.stream().map(flight -> {
-            Map<String, Object> result = new HashMap<>();
-            result.put("flightNumber", flight.get("id"));
-            result.put("price", flight.get("price"));
-            result.put("currency", "USD");
-            
-            // Extract itinerary details
-            List<Map<String, Object>> itineraries = (List<Map<String, Object>>) flight.get("itineraries");
-            if (itineraries != null && !itineraries.isEmpty()) {
-                Map<String, Object> itinerary = itineraries.get(0);
-                List<Map<String, Object>> segments = (List<Map<String, Object>>) itinerary.get("segments");
-                if (segments != null && !segments.isEmpty()) {
-                    Map<String, Object> segment = segments.get(0);
-                    result.put("from", segment.get("departure"));
-                    result.put("to", segment.get("arrival"));
-                    result.put("departureTime", segment.get("departure"));
-                    result.put("arrivalTime", segment.get("arrival"));
-                }
+        String url = amadeusBaseUrl + "/v1/reference-data/locations/hotels/by-city?cityCode={cityCode}";
+        
+        List<HotelSummary> hotels = resilience.call(UpstreamResilience.HOTELS_BY_CITY,
+                () -> get(url, accessToken, responseParser::parseHotels, cityCode));
+        return hotels != null ? extractHotelData(hotels, checkIn, checkOut) : null;
+    }
+    
+    // Adds the nightly rate of each listed hotel's cheapest offer, cheapest first. Sold-out hotels are
+    // dropped; hotels whose lookup failed or ran out of time follow without a price.
+    private List<Map<String, Object>> priceHotels(List<Map<String, Object>> hotels, String checkIn, String checkOut,
+                                                  int adults) {
+        // Only the first max-hotels are priced; the rest of the city is listed after them unpriced
+        List<Map<String, Object>> listed = hotels.subList(0, Math.min(maxPricedHotels, hotels.size()));
+        List<String> hotelIds = listed.stream().map(hotel -> (String) hotel.get("hotelId")).filter(Objects::nonNull).toList();
+        Map<String, Optional<HotelOffer>> prices = hotelPricing.prices(hotelIds, checkIn, checkOut, adults,
+                batch -> fetchHotelOffers(batch, checkIn, checkOut, adults));
+        LocalDate start = BookingDetails.parseDate(checkIn);
+        LocalDate end = BookingDetails.parseDate(checkOut);
+        long nights = start != null && end != null ? Math.max(1, ChronoUnit.DAYS.between(start, end)) : 1;
+
+        List<Map<String, Object>> priced = new ArrayList<>();
+        List<Map<String, Object>> unpriced = new ArrayList<>();
+        for (Map<String, Object> hotel : listed) {
+            Optional<HotelOffer> price = prices.get((String) hotel.get("hotelId"));
+            if (price == null) {
+                unpriced.add(hotel);
+            } else if (price.isPresent()) {
+                HotelOffer offer = price.get();
+                Map<String, Object> result = new HashMap<>(hotel);
+                result.put("offerId", offer.offerId());
+                result.put("pricePerNight", Math.round(offer.total() / nights * 100) / 100.0);
+                result.put("totalPrice", offer.total());
+                result.put("currency", offer.currency() != null ? offer.currency() : "USD");
+                priced.add(result);
             }
-            
-            return result;
-        }).toList();
+        }
+        priced.sort(Comparator.comparingDouble(hotel -> (double) hotel.get("pricePerNight")));
+        priced.addAll(unpriced);
+        priced.addAll(hotels.subList(listed.size(), hotels.size()));
+        return priced;
     }
     
-    @SuppressWarnings("unchecked")
-    private List<Map<String, Object>> extractHotelData(Map<String, Object> response, String checkIn, String checkOut) {
-        // Extract hotel data from Amadeus response
-        List<Map<String, Object>> hotels = (List<Map<String, Object>>) response.get("data");
-        if (hotels == null) return getMockHotelData("", checkIn, checkOut);
+    // One hotel-offers request for a batch of hotels; null when Amadeus is not usable
+    private List<HotelOffer> fetchHotelOffers(List<String> hotelIds, String checkIn, String checkOut, int adults) {
+        String accessToken = tokenManager.getAccessToken();
+        if (accessToken == null) {
+            return null;
+        }
+        
+        String url = amadeusBaseUrl + "/v3/shopping/hotel-offers?hotelIds={hotelIds}&checkInDate={checkIn}"
+                + "&checkOutDate={checkOut}&adults={adults}&bestRateOnly=true";
         
+        return resilience.call(UpstreamResilience.HOTEL_OFFERS,
+                () -> get(url, accessToken, responseParser::parseHotelOffers,
+                        String.join(",", hotelIds), checkIn, checkOut, adults));
+    }
+    
+    // Streams the response body straight into the parser instead of buffering it as a Map. The URL
+    // stays a template, so the http.client.requests uri tag does not grow with every query string.
+    private <T> T get(String urlTemplate, String accessToken, ResponseBodyParser<T> parser, Object... variables) {
+        try {
+            return restTemplate.execute(urlTemplate, HttpMethod.GET,
+                    request -> {
+                        request.getHeaders().setBearerAuth(accessToken);
+                        request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON));
+                    },
+                    response -> parser.parse(response.getBody()), variables);
+        } catch (HttpClientErrorException.Unauthorized e) {
+            // Token was revoked or expired early; drop it so the next search fetches a new one
+            tokenManager.invalidate(accessToken);
+            throw e;
+        }
+    }
+    
+    @FunctionalInterface
+    private interface ResponseBodyParser<T> {
+        T parse(InputStream body) throws IOException;
+    }
+    
+    // Cab quotes come from the in-house cab engine (live driver positions and surge) when it is
+    // enabled, otherwise from the offer inventory, and only fall back to mock data when both are off
+    public List<Map<String, Object>> searchCabs(String pickup, String dropoff, String pickupTime) {
+        long start = System.nanoTime();
+        if (cabEngine.enabled()) {
+            List<Map<String, Object>> cabs = cabEngine.quotes(pickup, dropoff, pickupTime);
+            recordSearch("cabs", "engine", start);
+            return cabs;
+        }
+        if (inventory.mode() != OfferInventory.Mode.OFF) {
+            List<Map<String, Object>> cabs = inventory.cabs(pickup, dropoff, pickupTime, OfferInventory.Sort.PRICE);
+            recordSearch("cabs", "inventory", start);
+            return cabs;
+        }
+        List<Map<String, Object>> cabs = getMockCabData(pickup, dropoff, pickupTime);
+        recordSearch("cabs", "mock", start);
+        return cabs;
+    }
+    
+    List<Map<String, Object>> extractFlightData(List<FlightOffer> offers) {
+        return offers.stream().map(FlightOffer::toMap).toList();
+    }
+    
+    List<Map<String, Object>> extractHotelData(List<HotelSummary> hotels, String checkIn, String checkOut) {
         return hotels.stream().map(hotel -> {
             Map<String, Object> result = new HashMap<>();
-            result.put("hotelId", hotel.get("hotelId"));
-            result.put("name", hotel.get("name"));
+            result.put("hotelId", hotel.hotelId());
+            result.put("name", hotel.name());
+            result.put("city", hotel.cityCode());
             result.put("checkIn", checkIn);
             result.put("checkOut", checkOut);
-            result.put("pricePerNight", 120.0); // Default price
-            result.put("currency", "USD");
             return result;
         }).toList();
     }
     
     // Mock data methods for when APIs are not available
-    private List<Map<String, Object>> getMockFlightData(String origin, String destination, String departureDate) {
+    List<Map<String, Object>> getMockFlightData(String origin, String destination, String departureDate) {
         return List.of(
             Map.of(
                 "flightNumber", "AA101",
@@ -209,7 +319,7 @@ public class ExternalApiService {
         );
     }
     
-    private List<Map<String, Object>> getMockHotelData(String cityCode, String checkIn, String checkOut) {
+    List<Map<String, Object>> getMockHotelData(String cityCode, String checkIn, String checkOut) {
         return List.of(
             Map.of(
                 "hotelId", "HOTEL001",
@@ -247,7 +357,7 @@ public class ExternalApiService {
         );
     }
     
-    private List<Map<String, Object>> getMockCabData(String pickup, String dropoff, String pickupTime) {
+    List<Map<String, Object>> getMockCabData(String pickup, String dropoff, String pickupTime) {
         return List.of(
             Map.of(
                 "providerId", "UBER001",
@@ -0,0 +1,186 @@
+package com.tbp.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tbp.service.amadeus.HotelOffer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Prices hotels many at a time instead of with one offers request per hotel. The hotels not in
+ * the price cache are split into batches of {@code hotel.pricing.batch-size} IDs that are
+ * fetched concurrently; batches not answered within {@code hotel.pricing.timeout} are cancelled
+ * and their hotels stay unpriced for this search.
+ * <p>
+ * Batches run on their own pool of {@code hotel.pricing.threads} rather than the application task
+ * executor: a hotel search running inside a trip search would otherwise wait for threads of the
+ * pool it is holding one of. Batches that find the queue full are not priced.
+ * <p>
+ * Prices, and hotels the response reports sold out, are cached per hotel, stay and number of
+ * adults for {@code hotel.pricing.cache-ttl}. Failed or abandoned lookups, and hotels a response
+ * does not mention, are not cached.
+ */
+@Component
+public class HotelPricing {
+    private static final Logger log = LoggerFactory.getLogger(HotelPricing.class);
+
+    @Value("${hotel.pricing.batch-size:20}")
+    private int batchSize;
+
+    @Value("${hotel.pricing.timeout:2s}")
+    private Duration timeout;
+
+    @Value("${hotel.pricing.cache-ttl:15m}")
+    private Duration cacheTtl;
+
+    @Value("${hotel.pricing.cache-max-entries:100000}")
+    private long cacheMaxEntries;
+
+    @Value("${hotel.pricing.threads:10}")
+    private int threads;
+
+    @Value("${hotel.pricing.queue-capacity:50}")
+    private int queueCapacity;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ThreadPoolExecutor executor;
+    private Cache<PriceKey, Optional<HotelOffer>> cache;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread thread = new Thread(r, "hotel-pricing-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        cache = Caffeine.newBuilder()
+                .expireAfterWrite(cacheTtl)
+                .maximumSize(cacheMaxEntries)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "hotel.prices");
+        Gauge.builder("hotel.pricing.queue", executor, e -> e.getQueue().size())
+                .description("Hotel-offers batches waiting for a pricing thread")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * The cheapest offer per hotel ID, empty for hotels reported sold out for the stay. Hotels whose
+     * lookup failed, did not finish in time or that the response left out are not in the result. {@code fetchBatch} requests the
+     * offers of up to {@code batch-size} hotels at once and returns {@code null} when it cannot.
+     */
+    public Map<String, Optional<HotelOffer>> prices(List<String> hotelIds, String checkIn, String checkOut, int adults,
+                                                    Function<List<String>, List<HotelOffer>> fetchBatch) {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        Map<String, Optional<HotelOffer>> prices = new HashMap<>();
+        Set<String> missingIds = new LinkedHashSet<>();
+        for (String hotelId : hotelIds) {
+            Optional<HotelOffer> cached = cache.getIfPresent(new PriceKey(hotelId, checkIn, checkOut, adults));
+            if (cached != null) {
+                prices.put(hotelId, cached);
+            } else {
+                missingIds.add(hotelId);
+            }
+        }
+        List<String> missing = new ArrayList<>(missingIds);
+
+        Map<List<String>, Future<List<HotelOffer>>> batches = new LinkedHashMap<>();
+        for (int from = 0; from < missing.size(); from += batchSize) {
+            List<String> batch = List.copyOf(missing.subList(from, Math.min(missing.size(), from + batchSize)));
+            try {
+                batches.put(batch, executor.submit(() -> fetchBatch.apply(batch)));
+            } catch (RejectedExecutionException e) {
+                record("rejected", start);
+            }
+        }
+
+        // Every get shares the same deadline
+        batches.forEach((batch, call) -> {
+            String outcome;
+            try {
+                List<HotelOffer> offers = call.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (offers != null) {
+                    store(batch, offers, checkIn, checkOut, adults, prices);
+                    outcome = "ok";
+                } else {
+                    outcome = "error";
+                }
+            } catch (TimeoutException e) {
+                call.cancel(true);
+                outcome = "timeout";
+            } catch (ExecutionException e) {
+                log.debug("Hotel offers lookup for {} hotels failed: {}", batch.size(), e.getCause().toString());
+                outcome = "error";
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                call.cancel(true);
+                outcome = "timeout";
+            }
+            record(outcome, start);
+        });
+        return prices;
+    }
+
+    private void store(List<String> batch, List<HotelOffer> offers, String checkIn, String checkOut, int adults,
+                       Map<String, Optional<HotelOffer>> prices) {
+        Set<String> requested = new HashSet<>(batch);
+        for (HotelOffer offer : offers) {
+            if (!requested.contains(offer.hotelId())) {
+                continue;
+            }
+            Optional<HotelOffer> price = offer.available() ? Optional.of(offer) : Optional.empty();
+            cache.put(new PriceKey(offer.hotelId(), checkIn, checkOut, adults), price);
+            prices.put(offer.hotelId(), price);
+        }
+    }
+
+    private void record(String outcome, long start) {
+        Timer.builder("hotel.pricing.batches")
+                .description("Time until each batched hotel-offers lookup answered or was abandoned")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private record PriceKey(String hotelId, String checkIn, String checkOut, int adults) {
+    }
+}
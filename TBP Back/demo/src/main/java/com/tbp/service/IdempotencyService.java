@@ -0,0 +1,166 @@
+package com.tbp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Replays the stored response of the first successful attempt when a client retries with the
+ * same {@code Idempotency-Key}. Keys are scoped to the principal and endpoint, responses are kept
+ * as serialized JSON for a fixed window, and the store is bounded by the total bytes it holds.
+ * Failed attempts are not stored, so the client can retry them.
+ */
+@Service
+public class IdempotencyService {
+    public static final String KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    // Rough per-entry cost of the key, future and record around the body bytes
+    private static final int ENTRY_OVERHEAD = 128;
+
+    @Value("${idempotency.ttl:24h}")
+    private Duration ttl;
+
+    @Value("${idempotency.max-size:16MB}")
+    private DataSize maxSize;
+
+    @Value("${idempotency.wait-timeout:10s}")
+    private Duration waitTimeout;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private AsyncCache<IdempotencyKey, StoredResponse> responses;
+    private Counter replays;
+
+    @PostConstruct
+    public void init() {
+        responses = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumWeight(maxSize.toBytes())
+                .<IdempotencyKey, StoredResponse>weigher((key, response) -> key.weight() + response.body().length + response.fingerprint().length)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "idempotency");
+        replays = Counter.builder("idempotency.replays")
+                .description("Requests answered from a stored Idempotency-Key response")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code action} once per {@code (principal, endpoint, key)}. Without a key the action
+     * simply runs. A duplicate that arrives while the first attempt is still running waits for
+     * it; reusing a key with a different request body is rejected with 422.
+     */
+    public ResponseEntity<?> execute(String principal, String key, String endpoint, Object request,
+                                     Supplier<ResponseEntity<?>> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().body(Map.of("error", KEY_HEADER + " must be at most " + MAX_KEY_LENGTH + " characters"));
+        }
+        IdempotencyKey cacheKey = new IdempotencyKey(principal, endpoint, key);
+        byte[] fingerprint = fingerprint(request);
+
+        while (true) {
+            CompletableFuture<StoredResponse> created = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> future = responses.get(cacheKey, (k, executor) -> created);
+            if (future == created) {
+                return runFirst(created, fingerprint, action);
+            }
+
+            StoredResponse stored;
+            try {
+                stored = future.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                return ResponseEntity.status(409)
+                        .body(Map.of("error", "A request with this " + KEY_HEADER + " is still being processed"));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return ResponseEntity.status(503).body(Map.of("error", "Request was interrupted"));
+            } catch (ExecutionException e) {
+                stored = null;
+            }
+            if (stored == null) {
+                // The first attempt failed and was not stored; this one gets to try
+                continue;
+            }
+            if (!MessageDigest.isEqual(stored.fingerprint(), fingerprint)) {
+                return ResponseEntity.unprocessableEntity()
+                        .body(Map.of("error", KEY_HEADER + " was already used with a different request"));
+            }
+            replays.increment();
+            return ResponseEntity.status(stored.status())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .header(REPLAYED_HEADER, "true")
+                    .body(stored.body());
+        }
+    }
+
+    // SHA-256 of the request as JSON; a 32-bit hash lets a different body replay the stored response
+    private byte[] fingerprint(Object request) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not fingerprint the request", e);
+        }
+    }
+
+    private ResponseEntity<?> runFirst(CompletableFuture<StoredResponse> created, byte[] fingerprint,
+                                       Supplier<ResponseEntity<?>> action) {
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            created.completeExceptionally(e);
+            throw e;
+        }
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            // A null value removes the entry, so waiters retry and later attempts start over
+            created.complete(null);
+            return response;
+        }
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(response.getBody());
+            created.complete(new StoredResponse(response.getStatusCode().value(), body, fingerprint));
+        } catch (JsonProcessingException e) {
+            created.complete(null);
+        }
+        return response;
+    }
+
+    private record IdempotencyKey(String principal, String endpoint, String key) {
+        int weight() {
+            return ENTRY_OVERHEAD + 2 * (String.valueOf(principal).length() + endpoint.length() + key.length());
+        }
+    }
+
+    private record StoredResponse(int status, byte[] body, byte[] fingerprint) {
+    }
+}
@@ -0,0 +1,117 @@
+package com.tbp.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Size-bounded, TTL-based cache of upstream search results keyed on the normalized request.
+ * Concurrent misses for the same key wait on the first caller's upstream call instead of
+ * issuing their own. Entries are weighed by the number of offers they hold.
+ */
+@Component
+public class SearchResultCache {
+
+    @Value("${search.cache.flights.ttl:5m}")
+    private Duration flightsTtl;
+
+    @Value("${search.cache.flights.max-offers:50000}")
+    private long flightsMaxOffers;
+
+    @Value("${search.cache.hotels.ttl:30m}")
+    private Duration hotelsTtl;
+
+    @Value("${search.cache.hotels.max-offers:50000}")
+    private long hotelsMaxOffers;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private AsyncCache<SearchKey, List<Map<String, Object>>> flights;
+    private AsyncCache<SearchKey, List<Map<String, Object>>> hotels;
+
+    @PostConstruct
+    public void init() {
+        flights = build("search.flights", flightsTtl, flightsMaxOffers);
+        hotels = build("search.hotels", hotelsTtl, hotelsMaxOffers);
+    }
+
+    public List<Map<String, Object>> getFlights(String origin, String destination, String departureDate, int adults,
+                                                Supplier<List<Map<String, Object>>> loader) {
+        SearchKey key = new SearchKey(code(origin), code(destination), trim(departureDate), "", adults);
+        return get(flights, key, loader);
+    }
+
+    public List<Map<String, Object>> getHotels(String cityCode, String checkIn, String checkOut, int adults,
+                                               Supplier<List<Map<String, Object>>> loader) {
+        SearchKey key = new SearchKey(code(cityCode), "", trim(checkIn), trim(checkOut), adults);
+        return get(hotels, key, loader);
+    }
+
+    /**
+     * Returns the cached result or runs the loader on the calling thread. A loader returning
+     * {@code null} or throwing leaves nothing behind, so fallback results are never cached.
+     */
+    private List<Map<String, Object>> get(AsyncCache<SearchKey, List<Map<String, Object>>> cache, SearchKey key,
+                                          Supplier<List<Map<String, Object>>> loader) {
+        CompletableFuture<List<Map<String, Object>>> created = new CompletableFuture<>();
+        CompletableFuture<List<Map<String, Object>>> future = cache.get(key, (k, executor) -> created);
+        if (future == created) {
+            try {
+                created.complete(loader.get());
+            } catch (RuntimeException e) {
+                created.completeExceptionally(e);
+            }
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private AsyncCache<SearchKey, List<Map<String, Object>>> build(String name, Duration ttl, long maxOffers) {
+        AsyncCache<SearchKey, List<Map<String, Object>>> cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumWeight(maxOffers)
+                .<SearchKey, List<Map<String, Object>>>weigher((key, offers) -> offers.size() + 1)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+        Gauge.builder("search.cache.offers", cache, c -> c.synchronous().policy().eviction()
+                        .map(eviction -> eviction.weightedSize().orElse(0L))
+                        .orElse(0L))
+                .description("Offers currently held by the search result cache")
+                .tag("cache", name)
+                .register(meterRegistry);
+        return cache;
+    }
+
+    private static String code(String value) {
+        return value == null ? "" : value.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static String trim(String value) {
+        return value == null ? "" : value.trim();
+    }
+
+    private record SearchKey(String first, String second, String startDate, String endDate, int adults) {
+    }
+}
@@ -0,0 +1,150 @@
+package com.tbp.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the flight, hotel and cab searches for one trip concurrently under a single deadline and
+ * reports each provider separately: results that arrived in time are returned, the rest are
+ * cancelled and marked as timed out. Cancelling interrupts the search; on virtual threads that
+ * also aborts a blocking upstream read, on platform threads the read ends at the upstream
+ * HTTP timeouts.
+ */
+@Service
+public class TripSearchService {
+    public static final String OK = "ok";
+    public static final String TIMEOUT = "timeout";
+    public static final String ERROR = "error";
+    public static final String SKIPPED = "skipped";
+
+    @Value("${trip.search.timeout:3s}")
+    private Duration timeout;
+
+    @Autowired
+    private ExternalApiService externalApiService;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private AsyncTaskExecutor executor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    public Map<String, Object> search(TripSearch trip) {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+
+        Map<String, Call> calls = new LinkedHashMap<>();
+        Map<String, Object> providers = new LinkedHashMap<>();
+        submit("flights", calls, providers, trip.from() != null && trip.to() != null && trip.departureDate() != null,
+                () -> externalApiService.searchFlights(trip.from(), trip.to(), trip.departureDate(), trip.adults()));
+        submit("hotels", calls, providers, trip.city() != null && trip.checkIn() != null,
+                () -> externalApiService.searchHotels(trip.city(), trip.checkIn(), trip.checkOut(), trip.adults()));
+        submit("cabs", calls, providers, trip.pickup() != null && trip.dropoff() != null,
+                () -> externalApiService.searchCabs(trip.pickup(), trip.dropoff(), trip.pickupTime()));
+
+        // Collect in submission order; every get shares the same deadline
+        calls.forEach((provider, call) -> {
+            Map<String, Object> outcome = new LinkedHashMap<>();
+            String status;
+            try {
+                List<Map<String, Object>> results = call.future().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                status = OK;
+                outcome.put("results", results);
+            } catch (TimeoutException e) {
+                call.future().cancel(true);
+                status = TIMEOUT;
+            } catch (ExecutionException e) {
+                status = ERROR;
+                outcome.put("error", String.valueOf(e.getCause().getMessage()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                call.future().cancel(true);
+                status = TIMEOUT;
+            }
+            // A provider that finished reports its own finish time, not when the loop reached it
+            // behind a slower one; an abandoned one reports when it was given up
+            long finishedAt = call.finishedAt().get();
+            long elapsed = (finishedAt != 0 && !TIMEOUT.equals(status) ? finishedAt : System.nanoTime()) - start;
+            outcome.put("status", status);
+            outcome.put("elapsedMs", TimeUnit.NANOSECONDS.toMillis(elapsed));
+            providers.put(provider, outcome);
+            Timer.builder("trip.search.provider")
+                    .description("Time until each trip-search provider completed or was abandoned")
+                    .tag("provider", provider)
+                    .tag("status", status)
+                    .register(meterRegistry)
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+        });
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("elapsedMs", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        response.put("timeoutMs", timeout.toMillis());
+        response.putAll(providers);
+        return response;
+    }
+
+    private void submit(String provider, Map<String, Call> calls,
+                        Map<String, Object> providers, boolean requested, Callable<List<Map<String, Object>>> search) {
+        if (!requested) {
+            providers.put(provider, Map.of("status", SKIPPED));
+            return;
+        }
+        // Reserve the slot so providers keep a stable order in the response
+        providers.put(provider, Map.of());
+        AtomicLong finishedAt = new AtomicLong();
+        try {
+            calls.put(provider, new Call(executor.submit(() -> {
+                try {
+                    return search.call();
+                } finally {
+                    finishedAt.set(System.nanoTime());
+                }
+            }), finishedAt));
+        } catch (RejectedExecutionException e) {
+            providers.put(provider, Map.of("status", ERROR, "error", "Search capacity exhausted"));
+        }
+    }
+
+    private record Call(Future<List<Map<String, Object>>> future, AtomicLong finishedAt) {
+    }
+
+    /**
+     * Inputs for one trip. Providers whose inputs are missing are skipped; the hotel stay
+     * defaults to the trip dates at the destination.
+     */
+    public record TripSearch(String from, String to, String departureDate, String returnDate, int adults,
+                             String city, String checkIn, String checkOut,
+                             String pickup, String dropoff, String pickupTime) {
+
+        public static TripSearch of(String from, String to, String departureDate, String returnDate, Integer adults,
+                                    String city, String pickup, String dropoff, String pickupTime) {
+            String hotelCity = city != null ? city : to;
+            String checkOut = returnDate;
+            if (checkOut == null && departureDate != null) {
+                LocalDate checkIn = BookingDetails.parseDate(departureDate);
+                checkOut = checkIn != null ? checkIn.plusDays(1).toString() : null;
+            }
+            return new TripSearch(from, to, departureDate, returnDate, adults != null ? adults : 1,
+                    hotelCity, departureDate, checkOut, pickup, dropoff, pickupTime);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.tbp.service;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Guards each upstream operation with a bulkhead and a circuit breaker.
+ * <p>
+ * The bulkhead caps how many calls to the operation run at once; up to {@code queue-capacity}
+ * more may wait at most {@code max-wait} for a slot, and anything beyond that is refused at
+ * once. A slow provider therefore ties up only its own share of request threads and pooled
+ * connections, and callers over the limit get their fallback instead of queueing behind it.
+ * <p>
+ * Once an operation fails or runs slow too often its circuit opens and calls are refused
+ * immediately, so searches go straight to their fallback instead of each waiting out the
+ * failure. After {@code wait-in-open} a few probe calls decide whether it closes again.
+ * <p>
+ * Settings are read per operation from {@code upstream.bulkhead.<operation>.*} and
+ * {@code upstream.circuit.<operation>.*}, falling back to the keys without the operation.
+ * Client errors other than 429 are the caller's fault and do not count against the upstream.
+ * <p>
+ * Every call is timed as {@code upstream.requests}, tagged with the operation and whether it
+ * succeeded, failed or was refused by the bulkhead or circuit.
+ */
+@Component
+public class UpstreamResilience {
+    private static final Logger log = LoggerFactory.getLogger(UpstreamResilience.class);
+
+    public static final String TOKEN = "amadeusToken";
+    public static final String FLIGHT_OFFERS = "flightOffers";
+    public static final String HOTELS_BY_CITY = "hotelsByCity";
+    public static final String HOTEL_OFFERS = "hotelOffers";
+    static final List<String> OPERATIONS = List.of(TOKEN, FLIGHT_OFFERS, HOTELS_BY_CITY, HOTEL_OFFERS);
+
+    private static final String CIRCUIT = "upstream.circuit.";
+    private static final String BULKHEAD = "upstream.bulkhead.";
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.ofDefaults();
+    private final BulkheadRegistry bulkheads = BulkheadRegistry.ofDefaults();
+    private final Map<String, Guard> guards = new HashMap<>();
+
+    @PostConstruct
+    public void init() {
+        for (String operation : OPERATIONS) {
+            CircuitBreaker breaker = circuitBreakers.circuitBreaker(operation, circuitConfig(operation));
+            breaker.getEventPublisher().onStateTransition(event -> {
+                CircuitBreaker.StateTransition transition = event.getStateTransition();
+                log.warn("Circuit for {} moved from {} to {}", operation, transition.getFromState(), transition.getToState());
+                Counter.builder("upstream.circuit.transitions")
+                        .description("Circuit breaker state transitions per upstream operation")
+                        .tag("name", operation)
+                        .tag("from", transition.getFromState().name())
+                        .tag("to", transition.getToState().name())
+                        .register(meterRegistry)
+                        .increment();
+            });
+
+            int maxConcurrent = setting(BULKHEAD, operation, "max-concurrent-calls", Integer.class, 10);
+            int queueCapacity = setting(BULKHEAD, operation, "queue-capacity", Integer.class, 10);
+            Bulkhead bulkhead = bulkheads.bulkhead(operation, BulkheadConfig.custom()
+                    .maxConcurrentCalls(maxConcurrent)
+                    .maxWaitDuration(setting(BULKHEAD, operation, "max-wait", Duration.class, Duration.ofMillis(250)))
+                    .fairCallHandlingStrategyEnabled(true)
+                    .build());
+            Counter rejected = Counter.builder("upstream.bulkhead.rejected")
+                    .description("Upstream calls refused because the operation's bulkhead was saturated")
+                    .tag("name", operation)
+                    .register(meterRegistry);
+            bulkhead.getEventPublisher().onCallRejected(event -> rejected.increment());
+            Guard guard = new Guard(breaker, bulkhead, new Semaphore(maxConcurrent + queueCapacity), maxConcurrent,
+                    queueCapacity, rejected);
+            guards.put(operation, guard);
+
+            Gauge.builder("upstream.bulkhead.saturation", guard, Guard::saturation)
+                    .description("Share of the operation's concurrent-call limit in use")
+                    .tag("name", operation)
+                    .register(meterRegistry);
+            Gauge.builder("upstream.bulkhead.queued", guard, Guard::queued)
+                    .description("Calls waiting for a slot in the operation's bulkhead")
+                    .tag("name", operation)
+                    .register(meterRegistry);
+        }
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(meterRegistry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(meterRegistry);
+    }
+
+    /**
+     * Runs the call through the operation's bulkhead and circuit. Throws
+     * {@link BulkheadFullException} when no slot frees up in time, and
+     * {@link CallNotPermittedException} when the circuit is open, without calling in either case.
+     */
+    public <T> T call(String operation, Supplier<T> call) {
+        Guard guard = guards.get(operation);
+        if (guard == null) {
+            throw new IllegalArgumentException("Unknown upstream operation: " + operation);
+        }
+        long start = System.nanoTime();
+        String outcome = "failure";
+        try {
+            if (!guard.admission().tryAcquire()) {
+                guard.rejected().increment();
+                throw BulkheadFullException.createBulkheadFullException(guard.bulkhead());
+            }
+            try {
+                T result = guard.bulkhead().executeSupplier(() -> guard.breaker().executeSupplier(call));
+                outcome = "success";
+                return result;
+            } finally {
+                guard.admission().release();
+            }
+        } catch (BulkheadFullException e) {
+            outcome = "rejected";
+            throw e;
+        } catch (CallNotPermittedException e) {
+            outcome = "circuit_open";
+            throw e;
+        } finally {
+            Timer.builder("upstream.requests")
+                    .description("Upstream calls per operation, including time spent waiting for the bulkhead")
+                    .tag("name", operation)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public CircuitBreaker breaker(String operation) {
+        return circuitBreakers.circuitBreaker(operation);
+    }
+
+    public Bulkhead bulkhead(String operation) {
+        return bulkheads.bulkhead(operation);
+    }
+
+    private CircuitBreakerConfig circuitConfig(String operation) {
+        return CircuitBreakerConfig.custom()
+                .failureRateThreshold(setting(CIRCUIT, operation, "failure-rate-threshold", Float.class, 50f))
+                .slowCallRateThreshold(setting(CIRCUIT, operation, "slow-call-rate-threshold", Float.class, 80f))
+                .slowCallDurationThreshold(setting(CIRCUIT, operation, "slow-call-duration", Duration.class, Duration.ofSeconds(3)))
+                .slidingWindowSize(setting(CIRCUIT, operation, "sliding-window-size", Integer.class, 20))
+                .minimumNumberOfCalls(setting(CIRCUIT, operation, "minimum-number-of-calls", Integer.class, 10))
+                .waitDurationInOpenState(setting(CIRCUIT, operation, "wait-in-open", Duration.class, Duration.ofSeconds(30)))
+                .permittedNumberOfCallsInHalfOpenState(setting(CIRCUIT, operation, "half-open-calls", Integer.class, 3))
+                .recordException(UpstreamResilience::isUpstreamFailure)
+                .build();
+    }
+
+    private <T> T setting(String prefix, String operation, String name, Class<T> type, T defaultValue) {
+        T fallback = environment.getProperty(prefix + name, type, defaultValue);
+        return environment.getProperty(prefix + operation + "." + name, type, fallback);
+    }
+
+    private static boolean isUpstreamFailure(Throwable e) {
+        return !(e instanceof HttpClientErrorException clientError) || clientError.getStatusCode().value() == 429;
+    }
+
+    // admission bounds running plus waiting calls, the bulkhead itself bounds the running ones
+    private record Guard(CircuitBreaker breaker, Bulkhead bulkhead, Semaphore admission, int maxConcurrent,
+                         int queueCapacity, Counter rejected) {
+        double saturation() {
+            return (double) running() / maxConcurrent;
+        }
+
+        int queued() {
+            int admitted = maxConcurrent + queueCapacity - admission.availablePermits();
+            return Math.max(0, admitted - running());
+        }
+
+        private int running() {
+            return maxConcurrent - bulkhead.getMetrics().getAvailableConcurrentCalls();
+        }
+    }
+}
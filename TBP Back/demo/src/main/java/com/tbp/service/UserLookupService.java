@@ -0,0 +1,106 @@
+package com.tbp.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tbp.model.User;
+import com.tbp.model.UserProfile;
+import com.tbp.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Resolves the authenticated email to a cached {@link UserProfile}, so authenticated endpoints
+ * do not query the users table on every request. Profile writes go through
+ * {@link #updateProfile} which refreshes the cached entry; the TTL bounds staleness for writes
+ * made on other nodes. Lookups run outside the cache's own locks, so a slow query never holds a
+ * monitor (which would pin a virtual thread); concurrent misses for one email share the query.
+ * <p>
+ * Every profile and booking write also bumps the user's {@code data_version}, which the
+ * dashboard turns into its ETag.
+ */
+@Service
+public class UserLookupService {
+
+    @Value("${user.cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${user.cache.ttl:5m}")
+    private Duration ttl;
+
+    @Autowired
+    private UserRepository userRepo;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private AsyncCache<String, UserProfile> profiles;
+
+    @PostConstruct
+    public void init() {
+        profiles = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, profiles, "users.by-email");
+    }
+
+    public Optional<UserProfile> findByEmail(String email) {
+        CompletableFuture<UserProfile> created = new CompletableFuture<>();
+        CompletableFuture<UserProfile> future = profiles.get(email, (key, executor) -> created);
+        if (future == created) {
+            try {
+                // A null result (unknown email) removes the entry instead of caching the miss
+                created.complete(userRepo.findByEmail(email).map(UserProfile::of).orElse(null));
+            } catch (RuntimeException e) {
+                created.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return Optional.ofNullable(future.join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a reference to the user row without loading it, for attaching new bookings.
+     */
+    public User reference(UserProfile profile) {
+        return userRepo.getReferenceById(profile.id());
+    }
+
+    public Optional<UserProfile> updateProfile(String email, String name, String address, String phone) {
+        User user = userRepo.findByEmail(email).orElse(null);
+        if (user == null) {
+            profiles.synchronous().invalidate(email);
+            return Optional.empty();
+        }
+        user.setName(name);
+        user.setAddress(address);
+        user.setPhone(phone);
+        UserProfile updated = UserProfile.of(userRepo.save(user));
+        dataChanged(updated.id());
+        profiles.put(email, CompletableFuture.completedFuture(updated));
+        return Optional.of(updated);
+    }
+
+    /** Bumps the user's data version after a write to their profile or bookings. */
+    public void dataChanged(Long userId) {
+        userRepo.incrementDataVersion(List.of(userId));
+    }
+}
@@ -0,0 +1,309 @@
+package com.tbp.service.amadeus;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams Amadeus JSON responses and keeps only the fields the search results use. Everything
+ * else (traveler pricings, fare details, dictionaries, ...) is skipped token by token instead
+ * of being materialized as nested maps.
+ */
+@Component
+public class AmadeusResponseParser {
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    /**
+     * Parses a flight-offers search response. Returns {@code null} when the body has no
+     * {@code data} array.
+     */
+    public List<FlightOffer> parseFlightOffers(InputStream body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (!moveToData(parser)) {
+                return null;
+            }
+            List<FlightOffer> offers = new ArrayList<>();
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                offers.add(readFlightOffer(parser));
+            }
+            return offers;
+        }
+    }
+
+    /**
+     * Parses a hotels-by-city response. Returns {@code null} when the body has no {@code data}
+     * array.
+     */
+    public List<HotelSummary> parseHotels(InputStream body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (!moveToData(parser)) {
+                return null;
+            }
+            List<HotelSummary> hotels = new ArrayList<>();
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                hotels.add(readHotel(parser));
+            }
+            return hotels;
+        }
+    }
+
+    /**
+     * Parses a hotel-offers response into the cheapest offer of each hotel it lists; hotels listed
+     * as unavailable or without a priced offer are {@link HotelOffer#soldOut}. Returns {@code null}
+     * when the body has no {@code data} array.
+     */
+    public List<HotelOffer> parseHotelOffers(InputStream body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (!moveToData(parser)) {
+                return null;
+            }
+            List<HotelOffer> offers = new ArrayList<>();
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                HotelOffer offer = readHotelOffers(parser);
+                if (offer != null) {
+                    offers.add(offer);
+                }
+            }
+            return offers;
+        }
+    }
+
+    // Leaves the parser on the START_ARRAY of the top-level "data" field
+    private boolean moveToData(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return false;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("data".equals(field) && value == JsonToken.START_ARRAY) {
+                return true;
+            }
+            parser.skipChildren();
+        }
+        return false;
+    }
+
+    private FlightOffer readFlightOffer(JsonParser parser) throws IOException {
+        String id = null;
+        double price = 0;
+        String currency = null;
+        Segment segment = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "id" -> id = parser.getValueAsString();
+                case "price" -> {
+                    if (value != JsonToken.START_OBJECT) {
+                        parser.skipChildren();
+                        break;
+                    }
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String priceField = parser.currentName();
+                        parser.nextToken();
+                        switch (priceField) {
+                            case "total" -> price = parser.getValueAsDouble();
+                            case "currency" -> currency = parser.getValueAsString();
+                            default -> parser.skipChildren();
+                        }
+                    }
+                }
+                case "itineraries" -> segment = readFirstSegment(parser, value);
+                default -> parser.skipChildren();
+            }
+        }
+
+        if (segment == null) {
+            segment = new Segment();
+        }
+        return new FlightOffer(id, segment.carrierCode, segment.number, segment.from, segment.departureTime,
+                segment.to, segment.arrivalTime, price, currency);
+    }
+
+    // Reads the first segment of the first itinerary and skips the rest of the array
+    private Segment readFirstSegment(JsonParser parser, JsonToken itineraries) throws IOException {
+        if (itineraries != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        Segment segment = null;
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            if (segment != null) {
+                parser.skipChildren();
+                continue;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("segments".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        if (segment == null) {
+                            segment = readSegment(parser);
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (segment == null) {
+                segment = new Segment();
+            }
+        }
+        return segment;
+    }
+
+    private Segment readSegment(JsonParser parser) throws IOException {
+        Segment segment = new Segment();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "departure" -> {
+                    String[] place = readPlace(parser, value);
+                    segment.from = place[0];
+                    segment.departureTime = place[1];
+                }
+                case "arrival" -> {
+                    String[] place = readPlace(parser, value);
+                    segment.to = place[0];
+                    segment.arrivalTime = place[1];
+                }
+                case "carrierCode" -> segment.carrierCode = parser.getValueAsString();
+                case "number" -> segment.number = parser.getValueAsString();
+                default -> parser.skipChildren();
+            }
+        }
+        return segment;
+    }
+
+    // Returns {iataCode, at}
+    private String[] readPlace(JsonParser parser, JsonToken value) throws IOException {
+        String[] place = new String[2];
+        if (value != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return place;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "iataCode" -> place[0] = parser.getValueAsString();
+                case "at" -> place[1] = parser.getValueAsString();
+                default -> parser.skipChildren();
+            }
+        }
+        return place;
+    }
+
+    private HotelSummary readHotel(JsonParser parser) throws IOException {
+        String hotelId = null;
+        String name = null;
+        String cityCode = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "hotelId" -> hotelId = parser.getValueAsString();
+                case "name" -> name = parser.getValueAsString();
+                case "iataCode" -> cityCode = parser.getValueAsString();
+                default -> parser.skipChildren();
+            }
+        }
+        return new HotelSummary(hotelId, name, cityCode);
+    }
+
+    // One data entry: {"hotel": {"hotelId": ...}, "available": true, "offers": [{"id", "price": {"total", "currency"}}]}
+    private HotelOffer readHotelOffers(JsonParser parser) throws IOException {
+        String hotelId = null;
+        boolean available = true;
+        HotelOffer cheapest = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "hotel" -> {
+                    if (value != JsonToken.START_OBJECT) {
+                        parser.skipChildren();
+                        break;
+                    }
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String hotelField = parser.currentName();
+                        parser.nextToken();
+                        if ("hotelId".equals(hotelField)) {
+                            hotelId = parser.getValueAsString();
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                }
+                case "available" -> available = parser.getValueAsBoolean(true);
+                case "offers" -> {
+                    if (value != JsonToken.START_ARRAY) {
+                        parser.skipChildren();
+                        break;
+                    }
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        HotelOffer offer = readRoomOffer(parser);
+                        if (offer.total() > 0 && (cheapest == null || offer.total() < cheapest.total())) {
+                            cheapest = offer;
+                        }
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        if (hotelId == null) {
+            return null;
+        }
+        if (!available || cheapest == null) {
+            return HotelOffer.soldOut(hotelId);
+        }
+        return new HotelOffer(hotelId, cheapest.offerId(), cheapest.total(), cheapest.currency());
+    }
+
+    private HotelOffer readRoomOffer(JsonParser parser) throws IOException {
+        String id = null;
+        double total = 0;
+        String currency = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("id".equals(field)) {
+                id = parser.getValueAsString();
+            } else if ("price".equals(field) && value == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String priceField = parser.currentName();
+                    parser.nextToken();
+                    switch (priceField) {
+                        case "total" -> total = parser.getValueAsDouble();
+                        case "currency" -> currency = parser.getValueAsString();
+                        default -> parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return new HotelOffer(null, id, total, currency);
+    }
+
+    private static final class Segment {
+        String carrierCode;
+        String number;
+        String from;
+        String departureTime;
+        String to;
+        String arrivalTime;
+    }
+}
@@ -0,0 +1,38 @@
+package com.tbp.service.amadeus;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The fields of an Amadeus flight offer that the search results use, taken from the offer's
+ * price and the first segment of its first itinerary.
+ */
+public record FlightOffer(
+        String id,
+        String carrierCode,
+        String number,
+        String from,
+        String departureTime,
+        String to,
+        String arrivalTime,
+        double price,
+        String currency) {
+
+    public String flightNumber() {
+        return carrierCode != null && number != null ? carrierCode + number : id;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("flightNumber", flightNumber());
+        result.put("offerId", id);
+        result.put("airline", carrierCode);
+        result.put("from", from);
+        result.put("to", to);
+        result.put("departureTime", departureTime);
+        result.put("arrivalTime", arrivalTime);
+        result.put("price", price);
+        result.put("currency", currency != null ? currency : "USD");
+        return result;
+    }
+}
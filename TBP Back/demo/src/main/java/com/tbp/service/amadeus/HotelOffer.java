@@ -0,0 +1,16 @@
+package com.tbp.service.amadeus;
+
+/**
+ * The cheapest Amadeus offer of one hotel for a stay: the total for all nights and its currency.
+ * A hotel the response lists without rooms for the stay is {@linkplain #soldOut sold out}.
+ */
+public record HotelOffer(String hotelId, String offerId, double total, String currency, boolean available) {
+
+    public HotelOffer(String hotelId, String offerId, double total, String currency) {
+        this(hotelId, offerId, total, currency, true);
+    }
+
+    public static HotelOffer soldOut(String hotelId) {
+        return new HotelOffer(hotelId, null, 0, null, false);
+    }
+}
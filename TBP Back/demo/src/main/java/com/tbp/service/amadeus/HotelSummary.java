@@ -0,0 +1,7 @@
+package com.tbp.service.amadeus;
+
+/**
+ * A hotel as listed by the Amadeus hotels-by-city lookup.
+ */
+public record HotelSummary(String hotelId, String name, String cityCode) {
+}
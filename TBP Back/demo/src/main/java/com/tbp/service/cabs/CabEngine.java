@@ -0,0 +1,260 @@
+package com.tbp.service.cabs;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cab quotes from the live driver positions in a {@link DriverIndex}: the nearest available
+ * drivers to the pickup, each with a pickup ETA, trip duration and a fare from distance, time and
+ * the current surge in the pickup zone. Surge compares the searches in the zone during the
+ * current minute with the available drivers around it.
+ * <p>
+ * Pickup and dropoff given as {@code "lat,lon"} are used as is; any other text is placed at a
+ * stable point within {@code cabs.engine.city-radius-km} of the city center, standing in for a
+ * geocoder.
+ * <p>
+ * Drivers whose last report is older than {@code cabs.engine.position-ttl} are neither quoted nor
+ * counted as supply, and are evicted every {@code cabs.engine.sweep-interval}.
+ */
+@Component
+public class CabEngine {
+    private static final Logger log = LoggerFactory.getLogger(CabEngine.class);
+
+    private static final String[] PROVIDERS = {"Uber", "Lyft", "Ola", "Bolt", "Local Taxi"};
+    private static final String[] VEHICLES = {"Standard", "XL", "Premium", "Taxi", "Electric"};
+    private static final double[] VEHICLE_RATE = {1.0, 1.5, 2.0, 1.05, 1.1};
+
+    @Value("${cabs.engine.enabled:false}")
+    private boolean enabled;
+
+    @Value("${cabs.engine.cell-km:1}")
+    private double cellKm;
+
+    @Value("${cabs.engine.nearest-drivers:5}")
+    private int nearestDrivers;
+
+    @Value("${cabs.engine.max-pickup-km:10}")
+    private double maxPickupKm;
+
+    @Value("${cabs.engine.position-ttl:2m}")
+    private Duration positionTtl;
+
+    @Value("${cabs.engine.sweep-interval:1m}")
+    private Duration sweepInterval;
+
+    @Value("${cabs.engine.city-lat:28.6139}")
+    private double cityLat;
+
+    @Value("${cabs.engine.city-lon:77.2090}")
+    private double cityLon;
+
+    @Value("${cabs.engine.city-radius-km:20}")
+    private double cityRadiusKm;
+
+    @Value("${cabs.engine.simulated-drivers:0}")
+    private int simulatedDrivers;
+
+    @Value("${cabs.engine.fare.base:2.50}")
+    private double baseFare;
+
+    @Value("${cabs.engine.fare.per-km:1.20}")
+    private double perKm;
+
+    @Value("${cabs.engine.fare.per-minute:0.25}")
+    private double perMinute;
+
+    @Value("${cabs.engine.fare.minimum:6.00}")
+    private double minimumFare;
+
+    @Value("${cabs.engine.average-speed-kmh:28}")
+    private double averageSpeedKmh;
+
+    @Value("${cabs.engine.road-factor:1.3}")
+    private double roadFactor;
+
+    @Value("${cabs.engine.surge.zone-km:2}")
+    private double surgeZoneKm;
+
+    @Value("${cabs.engine.surge.max:3.0}")
+    private double maxSurge;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private DriverIndex index;
+    private ScheduledExecutorService sweeper;
+    // Searches per surge zone in the current minute, packed as minute << 24 | count
+    private final Map<Long, AtomicLong> demand = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        index = new DriverIndex(cellKm);
+        if (!enabled) {
+            return;
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < simulatedDrivers; i++) {
+            double[] point = pointInCity(random.nextDouble(), random.nextDouble());
+            index.update("SIM" + i, PROVIDERS[random.nextInt(PROVIDERS.length)], VEHICLES[random.nextInt(VEHICLES.length)],
+                    point[0], point[1], true, Long.MAX_VALUE); // never stale, as nothing reports for them
+        }
+        if (simulatedDrivers > 0) {
+            log.info("Cab engine started with {} simulated drivers around {},{}", simulatedDrivers, cityLat, cityLon);
+        }
+        if (meterRegistry != null) {
+            Gauge.builder("cabs.drivers", index, DriverIndex::size)
+                    .description("Drivers with a reported position")
+                    .register(meterRegistry);
+        }
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "cab-driver-sweep");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::evictStale, sweepInterval.toMillis(), sweepInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    int evictStale() {
+        int evicted = index.evictStale(System.currentTimeMillis() - positionTtl.toMillis());
+        if (evicted > 0) {
+            log.debug("Evicted {} drivers without a position report in the last {}", evicted, positionTtl);
+        }
+        return evicted;
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    public void updatePosition(String driverId, String provider, String vehicleType, double lat, double lon,
+                               boolean available) {
+        index.update(driverId, provider != null ? provider : "Independent", vehicleType != null ? vehicleType : "Standard",
+                lat, lon, available, System.currentTimeMillis());
+    }
+
+    public void removeDriver(String driverId) {
+        index.remove(driverId);
+    }
+
+    /** Quotes from the nearest available drivers, soonest pickup first; empty when none are near. */
+    public List<Map<String, Object>> quotes(String pickup, String dropoff, String pickupTime) {
+        double[] from = locate(pickup);
+        double[] to = locate(dropoff);
+        if (from == null || to == null) {
+            return List.of();
+        }
+        long now = System.currentTimeMillis();
+        double surge = surge(from, now);
+        List<DriverIndex.Nearby> drivers = index.nearest(from[0], from[1], nearestDrivers, maxPickupKm,
+                now - positionTtl.toMillis());
+
+        double tripKm = DriverIndex.distanceKm(from[0], from[1], to[0], to[1]) * roadFactor;
+        int tripMinutes = minutes(tripKm);
+        List<Map<String, Object>> results = new ArrayList<>(drivers.size());
+        for (DriverIndex.Nearby nearby : drivers) {
+            DriverIndex.Driver driver = nearby.driver();
+            double fare = Math.max(minimumFare, baseFare + perKm * tripKm + perMinute * tripMinutes)
+                    * rate(driver.vehicleType()) * surge;
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("providerId", driver.id());
+            result.put("provider", driver.provider());
+            result.put("vehicleType", driver.vehicleType());
+            result.put("pickup", pickup);
+            result.put("dropoff", dropoff);
+            result.put("pickupTime", pickupTime);
+            result.put("estimatedDuration", tripMinutes + " minutes");
+            result.put("etaMinutes", minutes(nearby.distanceKm() * roadFactor));
+            result.put("distanceKm", Math.round(tripKm * 10) / 10.0);
+            result.put("surge", surge);
+            result.put("price", Math.round(fare * 100) / 100.0);
+            result.put("currency", "USD");
+            results.add(result);
+        }
+        return results;
+    }
+
+    // Searches in the zone over available drivers around it, in steps of 0.1 between 1 and max
+    double surge(double[] point, long nowMillis) {
+        long zone = (long) Math.floor(point[0] * DriverIndex.KM_PER_DEGREE / surgeZoneKm) << 32
+                | ((long) Math.floor(point[1] * DriverIndex.KM_PER_DEGREE / surgeZoneKm) & 0xFFFFFFFFL);
+        int supply = index.countAvailable(point[0], point[1], surgeZoneKm, nowMillis - positionTtl.toMillis());
+        if (supply == 0) {
+            return 1.0; // no driver to quote, and no zone entry for arbitrary coordinates
+        }
+        long minute = nowMillis / 60_000;
+        long searches = demand.computeIfAbsent(zone, z -> new AtomicLong())
+                .updateAndGet(packed -> packed >>> 24 == minute ? packed + 1 : minute << 24 | 1) & 0xFFFFFF;
+        double ratio = (double) searches / supply;
+        return Math.round(Math.min(maxSurge, Math.max(1.0, ratio)) * 10) / 10.0;
+    }
+
+    private int minutes(double km) {
+        return Math.max(1, (int) Math.ceil(km / averageSpeedKmh * 60));
+    }
+
+    private static double rate(String vehicleType) {
+        for (int i = 0; i < VEHICLES.length; i++) {
+            if (VEHICLES[i].equalsIgnoreCase(vehicleType)) {
+                return VEHICLE_RATE[i];
+            }
+        }
+        return 1.0;
+    }
+
+    double[] locate(String place) {
+        if (place == null || place.isBlank()) {
+            return null;
+        }
+        String[] parts = place.split(",");
+        if (parts.length == 2) {
+            try {
+                double lat = Double.parseDouble(parts[0].trim());
+                double lon = Double.parseDouble(parts[1].trim());
+                if (Math.abs(lat) <= 90 && Math.abs(lon) <= 180) {
+                    return new double[]{lat, lon};
+                }
+            } catch (NumberFormatException e) {
+                // not coordinates, fall through to a named place
+            }
+        }
+        SplittableRandom random = new SplittableRandom(place.trim().toLowerCase(Locale.ROOT).hashCode());
+        return pointInCity(random.nextDouble(), random.nextDouble());
+    }
+
+    // Uniform over the disc around the city center
+    private double[] pointInCity(double u, double v) {
+        double km = cityRadiusKm * Math.sqrt(u);
+        double angle = 2 * Math.PI * v;
+        double lat = cityLat + km * Math.cos(angle) / DriverIndex.KM_PER_DEGREE;
+        double lon = cityLon + km * Math.sin(angle) / (DriverIndex.KM_PER_DEGREE * Math.cos(Math.toRadians(cityLat)));
+        return new double[]{lat, lon};
+    }
+}
@@ -0,0 +1,209 @@
+package com.tbp.service.cabs;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Available drivers bucketed into square grid cells of {@code cellKm}, for nearest-driver
+ * queries around a point. Positions are updated concurrently without a global lock: the driver's
+ * entry in {@code drivers} is the source of truth and is changed under its own map bin, which
+ * also moves the driver between the concurrent cell maps. A query racing with a move may miss
+ * that driver once, but never returns a position that has since been replaced. Drivers that stop
+ * reporting stay until {@link #evictStale} removes them.
+ */
+public final class DriverIndex {
+
+    static final double KM_PER_DEGREE = 111.2;
+
+    /** A driver's last reported position. */
+    public record Driver(String id, String provider, String vehicleType, double lat, double lon, long cell,
+                         long updatedAtMillis) {
+    }
+
+    /** A driver found by {@link #nearest}, with the straight-line distance to the query point. */
+    public record Nearby(Driver driver, double distanceKm) {
+    }
+
+    private final double cellKm;
+    private final double cellDegrees;
+    private final Map<String, Driver> drivers = new ConcurrentHashMap<>();
+    // Only available drivers are in a cell
+    private final Map<Long, Map<String, Driver>> cells = new ConcurrentHashMap<>();
+
+    public DriverIndex(double cellKm) {
+        this.cellKm = cellKm;
+        this.cellDegrees = cellKm / KM_PER_DEGREE;
+    }
+
+    /** Records a position report; unavailable drivers are kept but not returned by queries. */
+    public void update(String id, String provider, String vehicleType, double lat, double lon, boolean available,
+                       long nowMillis) {
+        long cell = available ? cell(lat, lon) : Long.MIN_VALUE;
+        Driver driver = new Driver(id, provider, vehicleType, lat, lon, cell, nowMillis);
+        drivers.compute(id, (key, previous) -> {
+            if (previous != null && previous.cell() != cell && previous.cell() != Long.MIN_VALUE) {
+                Map<String, Driver> old = cells.get(previous.cell());
+                if (old != null) {
+                    old.remove(id);
+                }
+            }
+            if (available) {
+                // Inside the cell's bin, so a sweep dropping the empty cell cannot lose this entry
+                cells.compute(cell, (c, drivers) -> {
+                    Map<String, Driver> entries = drivers != null ? drivers : new ConcurrentHashMap<>();
+                    entries.put(id, driver);
+                    return entries;
+                });
+            }
+            return driver;
+        });
+    }
+
+    public void remove(String id) {
+        drivers.computeIfPresent(id, (key, previous) -> {
+            Map<String, Driver> old = cells.get(previous.cell());
+            if (old != null) {
+                old.remove(id);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Removes the drivers whose last report is older than {@code freshAfterMillis}, and the cells
+     * left empty, returning how many drivers were removed. A driver reporting while it is being
+     * swept is kept.
+     */
+    public int evictStale(long freshAfterMillis) {
+        int evicted = 0;
+        for (Driver driver : drivers.values()) {
+            if (driver.updatedAtMillis() >= freshAfterMillis) {
+                continue;
+            }
+            boolean[] removed = {false};
+            drivers.computeIfPresent(driver.id(), (key, current) -> {
+                if (current.updatedAtMillis() >= freshAfterMillis) {
+                    return current;
+                }
+                Map<String, Driver> cell = cells.get(current.cell());
+                if (cell != null) {
+                    cell.remove(key);
+                }
+                removed[0] = true;
+                return null;
+            });
+            if (removed[0]) {
+                evicted++;
+            }
+        }
+        for (Long key : cells.keySet()) {
+            cells.computeIfPresent(key, (k, entries) -> entries.isEmpty() ? null : entries);
+        }
+        return evicted;
+    }
+
+    /** Drivers with a position report, available or not. */
+    public int size() {
+        return drivers.size();
+    }
+
+    /**
+     * The {@code k} available drivers closest to the point within {@code maxKm}, nearest first,
+     * ignoring positions reported before {@code freshAfterMillis}. Cells are visited in rings
+     * around the point's cell until no unvisited cell can hold anything closer.
+     */
+    public List<Nearby> nearest(double lat, double lon, int k, double maxKm, long freshAfterMillis) {
+        if (k <= 0) {
+            return List.of();
+        }
+        long center = cell(lat, lon);
+        int centerRow = (int) (center >> 32);
+        int centerColumn = (int) center;
+        // Longitude cells are narrower away from the equator, so rings grow more slowly there
+        double ringKm = cellKm * Math.cos(Math.toRadians(Math.min(89, Math.abs(lat) + cellDegrees)));
+        int maxRing = (int) Math.ceil(maxKm / ringKm) + 1;
+
+        List<Nearby> found = new ArrayList<>();
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (int row = centerRow - ring; row <= centerRow + ring; row++) {
+                boolean edgeRow = row == centerRow - ring || row == centerRow + ring;
+                int step = edgeRow ? 1 : 2 * ring;
+                for (int column = centerColumn - ring; column <= centerColumn + ring; column += Math.max(1, step)) {
+                    collect(key(row, column), lat, lon, maxKm, freshAfterMillis, found);
+                }
+            }
+            // Everything beyond this ring is at least ring * ringKm away
+            if (found.size() >= k) {
+                found.sort(Comparator.comparingDouble(Nearby::distanceKm));
+                if (found.get(k - 1).distanceKm() <= ring * ringKm) {
+                    break;
+                }
+            }
+        }
+        found.sort(Comparator.comparingDouble(Nearby::distanceKm));
+        return found.size() > k ? new ArrayList<>(found.subList(0, k)) : found;
+    }
+
+    /**
+     * Available drivers reported since {@code freshAfterMillis} in the cells within
+     * {@code radiusKm} of the point, for supply estimates.
+     */
+    public int countAvailable(double lat, double lon, double radiusKm, long freshAfterMillis) {
+        long center = cell(lat, lon);
+        int centerRow = (int) (center >> 32);
+        int centerColumn = (int) center;
+        int rings = (int) Math.ceil(radiusKm / cellKm);
+        int count = 0;
+        for (int row = centerRow - rings; row <= centerRow + rings; row++) {
+            for (int column = centerColumn - rings; column <= centerColumn + rings; column++) {
+                Map<String, Driver> cell = cells.get(key(row, column));
+                if (cell == null) {
+                    continue;
+                }
+                for (Driver driver : cell.values()) {
+                    if (driver.updatedAtMillis() >= freshAfterMillis && drivers.get(driver.id()) == driver) {
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    private void collect(long key, double lat, double lon, double maxKm, long freshAfterMillis, List<Nearby> found) {
+        Map<String, Driver> cell = cells.get(key);
+        if (cell == null) {
+            return;
+        }
+        for (Driver driver : cell.values()) {
+            // Skip copies left behind by a concurrent move and positions gone stale
+            if (drivers.get(driver.id()) != driver || driver.updatedAtMillis() < freshAfterMillis) {
+                continue;
+            }
+            double distance = distanceKm(lat, lon, driver.lat(), driver.lon());
+            if (distance <= maxKm) {
+                found.add(new Nearby(driver, distance));
+            }
+        }
+    }
+
+    long cell(double lat, double lon) {
+        return key((int) Math.floor(lat / cellDegrees), (int) Math.floor(lon / cellDegrees));
+    }
+
+    private static long key(int row, int column) {
+        return (long) row << 32 | (column & 0xFFFFFFFFL);
+    }
+
+    /** Great-circle distance by the haversine formula. */
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * 6_371.0 * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
@@ -0,0 +1,120 @@
+package com.tbp.service.inventory;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Cabs available per pickup hour, in primitive arrays grouped by {@code (day, hour)}. Each cab
+ * has a fare for a reference trip and an average speed; the fare and duration of a search scale
+ * with the trip length, so the price order stored per group holds for every trip and
+ * {@code byDuration} (fastest first) likewise.
+ */
+final class CabTable {
+
+    private static final String[] PROVIDERS = {"Uber", "Lyft", "Ola", "Bolt", "Local Taxi"};
+    private static final String[] VEHICLES = {"Standard", "XL", "Premium", "Taxi", "Electric"};
+    private static final int REFERENCE_KM = 10;
+
+    private final int horizonDays;
+    // Cabs of group g are start[g] until start[g + 1]
+    private final int[] start;
+    private final byte[] provider;
+    private final byte[] vehicle;
+    private final int[] referenceFareCents;
+    private final byte[] speedKmh;
+    private final int[] byDuration;
+
+    private CabTable(int horizonDays, int[] start) {
+        this.horizonDays = horizonDays;
+        this.start = start;
+        int rows = start[start.length - 1];
+        this.provider = new byte[rows];
+        this.vehicle = new byte[rows];
+        this.referenceFareCents = new int[rows];
+        this.speedKmh = new byte[rows];
+        this.byDuration = new int[rows];
+    }
+
+    /**
+     * Generates on average {@code perHour} available cabs for every hour of {@code horizonDays}
+     * days, fewer at night.
+     */
+    static CabTable generate(int horizonDays, int perHour, SplittableRandom random) {
+        int groups = horizonDays * 24;
+        int[] start = new int[groups + 1];
+        for (int g = 0; g < groups; g++) {
+            int hour = g % 24;
+            int average = hour < 6 ? Math.max(1, perHour / 3) : perHour;
+            start[g + 1] = start[g] + 1 + random.nextInt(2 * average);
+        }
+
+        CabTable table = new CabTable(horizonDays, start);
+        long[] order = new long[2 * perHour + 1];
+        for (int g = 0; g < groups; g++) {
+            int size = start[g + 1] - start[g];
+            for (int i = 0; i < size; i++) {
+                int vehicleType = random.nextInt(VEHICLES.length);
+                int fare = (1_200 + 150 * vehicleType) * (80 + random.nextInt(60));
+                // Fare in the high bits so the sort orders by price, generated attributes in the low bits
+                order[i] = (long) fare << 24 | (long) vehicleType << 16 | random.nextInt(PROVIDERS.length) << 8
+                        | (18 + random.nextInt(30));
+            }
+            Arrays.sort(order, 0, size);
+            for (int i = 0; i < size; i++) {
+                int row = start[g] + i;
+                table.referenceFareCents[row] = (int) (order[i] >>> 24);
+                table.vehicle[row] = (byte) (order[i] >>> 16 & 0xFF);
+                table.provider[row] = (byte) (order[i] >>> 8 & 0xFF);
+                table.speedKmh[row] = (byte) (order[i] & 0xFF);
+                // Fastest first: invert the speed so ascending order puts it at the front
+                order[i] = (long) (255 - table.speedKmh[row]) << 20 | i;
+            }
+            Arrays.sort(order, 0, size);
+            for (int i = 0; i < size; i++) {
+                table.byDuration[start[g] + i] = start[g] + (int) (order[i] & 0xFFFFF);
+            }
+        }
+        return table;
+    }
+
+    int size() {
+        return referenceFareCents.length;
+    }
+
+    long bytes() {
+        return 4L * start.length + size() * (1L + 1 + 4 + 1 + 4);
+    }
+
+    List<Map<String, Object>> find(String pickup, String dropoff, LocalDateTime pickupTime, String pickupTimeText,
+                                   OfferInventory.Sort sort, int limit) {
+        if (pickup == null || dropoff == null || pickupTime == null) {
+            return List.of();
+        }
+        // A stable trip length per pickup and dropoff pair
+        int km = 3 + Math.floorMod(31 * pickup.hashCode() + dropoff.hashCode(), 38);
+        int group = Math.floorMod(pickupTime.toLocalDate().toEpochDay(), horizonDays) * 24 + pickupTime.getHour();
+        int first = start[group];
+        int count = Math.min(limit, start[group + 1] - first);
+        List<Map<String, Object>> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int row = sort == OfferInventory.Sort.TIME ? byDuration[first + i] : first + i;
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("providerId", "INV" + row);
+            result.put("provider", PROVIDERS[provider[row]]);
+            result.put("vehicleType", VEHICLES[vehicle[row]]);
+            result.put("pickup", pickup);
+            result.put("dropoff", dropoff);
+            result.put("pickupTime", pickupTimeText);
+            result.put("estimatedDuration", (km * 60 + speedKmh[row] - 1) / speedKmh[row] + " minutes");
+            result.put("price", (long) referenceFareCents[row] * km / REFERENCE_KM / 100.0);
+            result.put("currency", "USD");
+            results.add(result);
+        }
+        return results;
+    }
+}
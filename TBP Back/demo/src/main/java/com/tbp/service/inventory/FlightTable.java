@@ -0,0 +1,275 @@
+package com.tbp.service.inventory;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Flight offers stored column by column in primitive arrays. Rows are grouped by
+ * {@code (route, day)} and ordered by price inside each group, so a direct search is a route
+ * lookup followed by a scan of the first rows; {@code byDeparture} holds the same rows ordered by
+ * departure time. For connection searches the rows are also listed per {@code (origin, day)} in
+ * departure order ({@code departures}), and the routes per destination ({@code inbound}).
+ */
+final class FlightTable {
+
+    private static final String[] CARRIERS = {"AA", "AI", "BA", "DL", "EK", "LH", "QR", "SQ", "UA", "6E"};
+    // Airports are placed on a square map of this size; flight times follow from the distance
+    private static final int MAP_KM = 8_000;
+    private static final double KM_PER_MINUTE = 13.3;
+
+    final String[] airports;
+    final int horizonDays;
+    // origin * airports.length + destination of every route, ascending
+    private final int[] routeKeys;
+    // Rows of group (route * horizonDays + day) are start[group] until start[group + 1]
+    private final int[] start;
+    final short[] origin;
+    final short[] destination;
+    final short[] departureMinute;
+    final short[] durationMinutes;
+    final int[] priceCents;
+    private final byte[] carrier;
+    private final short[] number;
+    private final int[] byDeparture;
+    // Rows leaving airport a on day d, by departure time, are departures[departureStart[a * horizonDays + d]]
+    // until departures[departureStart[a * horizonDays + d + 1]]
+    final int[] departureStart;
+    final int[] departures;
+    // Airports with a route to airport a are inbound[inboundStart[a]] until inbound[inboundStart[a + 1]]
+    final int[] inboundStart;
+    final int[] inbound;
+
+    private FlightTable(String[] airports, int horizonDays, int[] routeKeys, int[] start) {
+        this.airports = airports;
+        this.horizonDays = horizonDays;
+        this.routeKeys = routeKeys;
+        this.start = start;
+        int rows = start[start.length - 1];
+        this.origin = new short[rows];
+        this.destination = new short[rows];
+        this.departureMinute = new short[rows];
+        this.durationMinutes = new short[rows];
+        this.priceCents = new int[rows];
+        this.carrier = new byte[rows];
+        this.number = new short[rows];
+        this.byDeparture = new int[rows];
+        this.departureStart = new int[airports.length * horizonDays + 1];
+        this.departures = new int[rows];
+        this.inboundStart = new int[airports.length + 1];
+        this.inbound = new int[routeKeys.length];
+    }
+
+    /**
+     * Generates a schedule for {@code horizonDays} days with on average {@code perRouteDay}
+     * flights per route and day. With {@code routesPerAirport} of zero every pair of airports is
+     * a route; otherwise each airport gets about that many routes, to its nearest hub and to
+     * random other airports, so most pairs need a connection.
+     */
+    static FlightTable generate(String[] airports, int horizonDays, int perRouteDay, int routesPerAirport,
+                                SplittableRandom random) {
+        int n = airports.length;
+        int[] x = new int[n];
+        int[] y = new int[n];
+        for (int a = 0; a < n; a++) {
+            x[a] = random.nextInt(MAP_KM);
+            y[a] = random.nextInt(MAP_KM);
+        }
+        int[] routeKeys = routes(n, routesPerAirport, x, y, random);
+
+        int groups = routeKeys.length * horizonDays;
+        int[] start = new int[groups + 1];
+        for (int g = 0; g < groups; g++) {
+            start[g + 1] = start[g] + 1 + random.nextInt(2 * perRouteDay - 1);
+        }
+
+        FlightTable table = new FlightTable(airports, horizonDays, routeKeys, start);
+        long[] order = new long[2 * perRouteDay];
+        short[] departures = new short[order.length];
+        short[] durations = new short[order.length];
+        int[] prices = new int[order.length];
+        for (int g = 0; g < groups; g++) {
+            int route = g / horizonDays;
+            int from = routeKeys[route] / n;
+            int to = routeKeys[route] % n;
+            int baseDuration = 40 + (int) (Math.hypot(x[from] - x[to], y[from] - y[to]) / KM_PER_MINUTE);
+            int size = start[g + 1] - start[g];
+            for (int i = 0; i < size; i++) {
+                departures[i] = (short) (300 + 5 * random.nextInt(216));
+                durations[i] = (short) (baseDuration + random.nextInt(30));
+                prices[i] = (int) ((3_000 + durations[i] * 45L) * (70 + random.nextInt(110)));
+                order[i] = (long) prices[i] << 20 | i;
+            }
+            Arrays.sort(order, 0, size);
+            for (int i = 0; i < size; i++) {
+                int source = (int) (order[i] & 0xFFFFF);
+                int row = start[g] + i;
+                table.origin[row] = (short) from;
+                table.destination[row] = (short) to;
+                table.departureMinute[row] = departures[source];
+                table.durationMinutes[row] = durations[source];
+                table.priceCents[row] = prices[source];
+                table.carrier[row] = (byte) random.nextInt(CARRIERS.length);
+                table.number[row] = (short) (100 + random.nextInt(9_000));
+                order[i] = (long) departures[source] << 20 | i;
+            }
+            Arrays.sort(order, 0, size);
+            for (int i = 0; i < size; i++) {
+                table.byDeparture[start[g] + i] = start[g] + (int) (order[i] & 0xFFFFF);
+            }
+        }
+        table.indexDepartures();
+        table.indexInbound();
+        return table;
+    }
+
+    private static int[] routes(int n, int routesPerAirport, int[] x, int[] y, SplittableRandom random) {
+        BitSet routes = new BitSet(n * n);
+        if (routesPerAirport <= 0 || routesPerAirport >= n - 1) {
+            for (int a = 0; a < n; a++) {
+                for (int b = 0; b < n; b++) {
+                    if (a != b) {
+                        routes.set(a * n + b);
+                    }
+                }
+            }
+        } else {
+            int[] hubs = random.ints(Math.max(2, n / 25), 0, n).distinct().toArray();
+            for (int a = 0; a < n; a++) {
+                int nearestHub = -1;
+                double nearest = Double.MAX_VALUE;
+                for (int hub : hubs) {
+                    double distance = Math.hypot(x[a] - x[hub], y[a] - y[hub]);
+                    if (hub != a && distance < nearest) {
+                        nearest = distance;
+                        nearestHub = hub;
+                    }
+                }
+                connect(routes, n, a, nearestHub);
+                for (int i = 1; i < routesPerAirport; i++) {
+                    // Half the remaining routes go to hubs, so hubs end up with many
+                    int other = random.nextBoolean() ? hubs[random.nextInt(hubs.length)] : random.nextInt(n);
+                    connect(routes, n, a, other);
+                }
+            }
+        }
+        return routes.stream().toArray();
+    }
+
+    private static void connect(BitSet routes, int n, int a, int b) {
+        if (a != b) {
+            routes.set(a * n + b);
+            routes.set(b * n + a);
+        }
+    }
+
+    private void indexDepartures() {
+        int n = airports.length;
+        long[] order = new long[size()];
+        for (int route = 0; route < routeKeys.length; route++) {
+            for (int day = 0; day < horizonDays; day++) {
+                int group = route * horizonDays + day;
+                long departureGroup = (long) (routeKeys[route] / n) * horizonDays + day;
+                for (int row = start[group]; row < start[group + 1]; row++) {
+                    order[row] = departureGroup << 40 | (long) departureMinute[row] << 28 | row;
+                }
+            }
+        }
+        Arrays.sort(order);
+        for (int i = 0; i < order.length; i++) {
+            departures[i] = (int) (order[i] & 0xFFFFFFF);
+            departureStart[(int) (order[i] >>> 40) + 1]++;
+        }
+        for (int group = 0; group < departureStart.length - 1; group++) {
+            departureStart[group + 1] += departureStart[group];
+        }
+    }
+
+    private void indexInbound() {
+        int n = airports.length;
+        for (int key : routeKeys) {
+            inboundStart[key % n + 1]++;
+        }
+        for (int a = 0; a < n; a++) {
+            inboundStart[a + 1] += inboundStart[a];
+        }
+        int[] next = Arrays.copyOf(inboundStart, n);
+        for (int key : routeKeys) {
+            inbound[next[key % n]++] = key / n;
+        }
+    }
+
+    int size() {
+        return priceCents.length;
+    }
+
+    int routes() {
+        return routeKeys.length;
+    }
+
+    long bytes() {
+        return 4L * (2L * routeKeys.length + start.length + departureStart.length + inboundStart.length)
+                + size() * (2L + 2 + 2 + 2 + 4 + 1 + 2 + 4 + 4);
+    }
+
+    int airport(String code) {
+        return Arrays.binarySearch(airports, code);
+    }
+
+    int day(LocalDate date) {
+        return Math.floorMod(date.toEpochDay(), horizonDays);
+    }
+
+    List<Map<String, Object>> find(String originCode, String destinationCode, LocalDate date,
+                                   OfferInventory.Sort sort, int limit) {
+        int from = airport(originCode);
+        int to = airport(destinationCode);
+        if (from < 0 || to < 0 || date == null) {
+            return List.of();
+        }
+        int route = Arrays.binarySearch(routeKeys, from * airports.length + to);
+        if (route < 0) {
+            return List.of();
+        }
+        int group = route * horizonDays + day(date);
+        int first = start[group];
+        int count = Math.min(limit, start[group + 1] - first);
+        List<Map<String, Object>> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int row = sort == OfferInventory.Sort.TIME ? byDeparture[first + i] : first + i;
+            results.add(toMap(row, date, departureMinute[row]));
+        }
+        return results;
+    }
+
+    /**
+     * The offer of one row. {@code departure} is in minutes after midnight of {@code date} and
+     * may run past it for connecting legs on later days.
+     */
+    Map<String, Object> toMap(int row, LocalDate date, int departure) {
+        String carrierCode = CARRIERS[carrier[row]];
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("flightNumber", carrierCode + number[row]);
+        result.put("offerId", "INV" + row);
+        result.put("airline", carrierCode);
+        result.put("from", airports[origin[row]]);
+        result.put("to", airports[destination[row]]);
+        result.put("departureTime", dateTime(date, departure));
+        result.put("arrivalTime", dateTime(date, departure + durationMinutes[row]));
+        result.put("price", priceCents[row] / 100.0);
+        result.put("currency", "USD");
+        return result;
+    }
+
+    static String dateTime(LocalDate date, int minutes) {
+        int minuteOfDay = minutes % 1_440;
+        int hours = minuteOfDay / 60;
+        int minute = minuteOfDay % 60;
+        return date.plusDays(minutes / 1_440) + "T" + (hours < 10 ? "0" : "") + hours + (minute < 10 ? ":0" : ":") + minute + ":00";
+    }
+}
@@ -0,0 +1,165 @@
+package com.tbp.service.inventory;
+
+import com.tbp.service.BookingDetails;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An {@link OfferInventory} generated at startup from a fixed seed: flights between the
+ * {@code inventory.airports} (every pair, or about {@code inventory.routes-per-airport} routes
+ * each), hotels in each of them as a city, and cabs per pickup hour, for
+ * {@code inventory.horizon-days} days. The schedule repeats after the horizon, so any date
+ * finds offers. Nothing is generated while {@code inventory.mode} is {@code off}.
+ */
+@Component
+public class GeneratedOfferInventory implements OfferInventory {
+    private static final Logger log = LoggerFactory.getLogger(GeneratedOfferInventory.class);
+
+    @Value("${inventory.mode:off}")
+    private Mode mode;
+
+    @Value("${inventory.seed:42}")
+    private long seed;
+
+    @Value("${inventory.horizon-days:90}")
+    private int horizonDays;
+
+    @Value("${inventory.airports:DEL,BOM,BLR,MAA,HYD,CCU}")
+    private String[] airports;
+
+    @Value("${inventory.routes-per-airport:0}")
+    private int routesPerAirport;
+
+    @Value("${inventory.flights-per-route-day:8}")
+    private int flightsPerRouteDay;
+
+    @Value("${inventory.hotels-per-city:200}")
+    private int hotelsPerCity;
+
+    @Value("${inventory.cabs-per-hour:40}")
+    private int cabsPerHour;
+
+    @Value("${inventory.max-results:50}")
+    private int maxResults;
+
+    @Value("${inventory.connections.min-connection:45m}")
+    private Duration minConnection;
+
+    @Value("${inventory.connections.max-layover:6h}")
+    private Duration maxLayover;
+
+    @Value("${inventory.connections.max-stops:2}")
+    private int maxStops;
+
+    @Value("${inventory.connections.max-labels-per-airport:16}")
+    private int maxLabelsPerAirport;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private FlightTable flights;
+    private HotelTable hotels;
+    private CabTable cabs;
+
+    @PostConstruct
+    public void init() {
+        if (mode == Mode.OFF) {
+            return;
+        }
+        long start = System.nanoTime();
+        String[] codes = Arrays.stream(airports).map(code -> code.trim().toUpperCase(Locale.ROOT)).distinct().sorted()
+                .toArray(String[]::new);
+        SplittableRandom random = new SplittableRandom(seed);
+        flights = FlightTable.generate(codes, horizonDays, flightsPerRouteDay, routesPerAirport, random.split());
+        hotels = HotelTable.generate(codes, horizonDays, hotelsPerCity, random.split());
+        cabs = CabTable.generate(horizonDays, cabsPerHour, random.split());
+        log.info("Offer inventory ({}) generated in {} ms: {} flights on {} routes, {} hotel nights, {} cabs, about {} MB",
+                mode.name().toLowerCase(Locale.ROOT), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                flights.size(), flights.routes(), hotels.size(), cabs.size(),
+                (flights.bytes() + hotels.bytes() + cabs.bytes()) / (1024 * 1024));
+
+        if (meterRegistry != null) {
+            Gauge.builder("inventory.offers", flights, FlightTable::size)
+                    .description("Offers held by the in-memory inventory")
+                    .tag("product", "flights").register(meterRegistry);
+            Gauge.builder("inventory.offers", hotels, HotelTable::size)
+                    .description("Offers held by the in-memory inventory")
+                    .tag("product", "hotels").register(meterRegistry);
+            Gauge.builder("inventory.offers", cabs, CabTable::size)
+                    .description("Offers held by the in-memory inventory")
+                    .tag("product", "cabs").register(meterRegistry);
+        }
+    }
+
+    @Override
+    public Mode mode() {
+        return mode;
+    }
+
+    @Override
+    public List<Map<String, Object>> flights(String origin, String destination, String departureDate, Sort sort) {
+        if (flights == null || origin == null || destination == null) {
+            return List.of();
+        }
+        return flights.find(origin.toUpperCase(Locale.ROOT), destination.toUpperCase(Locale.ROOT),
+                BookingDetails.parseDate(departureDate), sort, maxResults);
+    }
+
+    @Override
+    public List<Map<String, Object>> itineraries(String origin, String destination, String departureDate) {
+        if (flights == null || origin == null || destination == null) {
+            return List.of();
+        }
+        ItinerarySearch search = new ItinerarySearch(flights, (int) minConnection.toMinutes(), (int) maxLayover.toMinutes(),
+                maxStops, maxLabelsPerAirport);
+        return search.search(origin.toUpperCase(Locale.ROOT), destination.toUpperCase(Locale.ROOT),
+                BookingDetails.parseDate(departureDate), maxResults);
+    }
+
+    @Override
+    public List<Map<String, Object>> hotels(String cityCode, String checkIn, String checkOut, Sort sort) {
+        if (hotels == null || cityCode == null) {
+            return List.of();
+        }
+        return hotels.find(cityCode.toUpperCase(Locale.ROOT), BookingDetails.parseDate(checkIn),
+                BookingDetails.parseDate(checkOut), maxResults);
+    }
+
+    @Override
+    public List<Map<String, Object>> cabs(String pickup, String dropoff, String pickupTime, Sort sort) {
+        if (cabs == null) {
+            return List.of();
+        }
+        return cabs.find(pickup, dropoff, parsePickupTime(pickupTime), pickupTime, sort, maxResults);
+    }
+
+    // datetime-local values carry no seconds; a bare date means midday
+    private static LocalDateTime parsePickupTime(String value) {
+        if (value != null && value.length() >= 16) {
+            try {
+                return LocalDateTime.parse(value.substring(0, 16));
+            } catch (DateTimeParseException e) {
+                // fall through to the date alone
+            }
+        }
+        LocalDate date = BookingDetails.parseDate(value);
+        return date != null ? date.atTime(12, 0) : null;
+    }
+}
@@ -0,0 +1,141 @@
+package com.tbp.service.inventory;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Hotels and their nightly rates in primitive arrays. The hotels themselves are fixed per city;
+ * rates are grouped by {@code (city, night)} with only the hotels that have rooms that night,
+ * ordered by price.
+ */
+final class HotelTable {
+
+    private static final String[] BRANDS = {"Grand Plaza", "Business Center", "Budget Inn", "Harbour View",
+            "City Lights", "Park Residency", "Airport Suites", "Heritage House"};
+    private static final String[] AMENITIES = {"WiFi", "Pool", "Gym", "Restaurant", "Parking", "Spa", "Business Center"};
+
+    private final String[] cities;
+    private final int hotelsPerCity;
+    private final int horizonDays;
+    private final byte[] brand;
+    private final byte[] ratingTenths;
+    private final byte[] amenities;
+    // Rates of group g are start[g] until start[g + 1]
+    private final int[] start;
+    private final int[] hotel;
+    private final int[] priceCents;
+
+    private HotelTable(String[] cities, int hotelsPerCity, int horizonDays, int rows) {
+        this.cities = cities;
+        this.hotelsPerCity = hotelsPerCity;
+        this.horizonDays = horizonDays;
+        int hotels = cities.length * hotelsPerCity;
+        this.brand = new byte[hotels];
+        this.ratingTenths = new byte[hotels];
+        this.amenities = new byte[hotels];
+        this.start = new int[cities.length * horizonDays + 1];
+        this.hotel = new int[rows];
+        this.priceCents = new int[rows];
+    }
+
+    /**
+     * Generates {@code hotelsPerCity} hotels in each city, each with rooms on about 90% of the
+     * {@code horizonDays} nights at a rate that varies by weekday and season.
+     */
+    static HotelTable generate(String[] cities, int horizonDays, int hotelsPerCity, SplittableRandom random) {
+        HotelTable table = new HotelTable(cities, hotelsPerCity, horizonDays, cities.length * hotelsPerCity * horizonDays);
+        int[] basePrice = new int[cities.length * hotelsPerCity];
+        for (int h = 0; h < basePrice.length; h++) {
+            table.brand[h] = (byte) random.nextInt(BRANDS.length);
+            table.ratingTenths[h] = (byte) (28 + random.nextInt(23));
+            table.amenities[h] = (byte) (1 | random.nextInt(1 << AMENITIES.length));
+            basePrice[h] = 4_000 + table.ratingTenths[h] * (150 + random.nextInt(250));
+        }
+
+        long[] order = new long[hotelsPerCity];
+        int row = 0;
+        for (int c = 0; c < cities.length; c++) {
+            for (int day = 0; day < horizonDays; day++) {
+                int group = c * horizonDays + day;
+                table.start[group] = row;
+                int size = 0;
+                for (int i = 0; i < hotelsPerCity; i++) {
+                    if (random.nextInt(10) == 0) {
+                        continue; // sold out that night
+                    }
+                    int h = c * hotelsPerCity + i;
+                    int percent = 85 + random.nextInt(40) + (day % 7 >= 5 ? 15 : 0);
+                    order[size++] = (long) (basePrice[h] * percent / 100) << 32 | h;
+                }
+                Arrays.sort(order, 0, size);
+                for (int i = 0; i < size; i++, row++) {
+                    table.priceCents[row] = (int) (order[i] >>> 32);
+                    table.hotel[row] = (int) order[i];
+                }
+            }
+        }
+        table.start[table.start.length - 1] = row;
+        return table.trim(row);
+    }
+
+    private HotelTable trim(int rows) {
+        HotelTable trimmed = new HotelTable(cities, hotelsPerCity, horizonDays, rows);
+        System.arraycopy(brand, 0, trimmed.brand, 0, brand.length);
+        System.arraycopy(ratingTenths, 0, trimmed.ratingTenths, 0, ratingTenths.length);
+        System.arraycopy(amenities, 0, trimmed.amenities, 0, amenities.length);
+        System.arraycopy(start, 0, trimmed.start, 0, start.length);
+        System.arraycopy(hotel, 0, trimmed.hotel, 0, rows);
+        System.arraycopy(priceCents, 0, trimmed.priceCents, 0, rows);
+        return trimmed;
+    }
+
+    int size() {
+        return priceCents.length;
+    }
+
+    long bytes() {
+        return 3L * brand.length + 4L * start.length + 8L * size();
+    }
+
+    List<Map<String, Object>> find(String cityCode, LocalDate checkIn, LocalDate checkOut, int limit) {
+        int city = Arrays.binarySearch(cities, cityCode);
+        if (city < 0 || checkIn == null) {
+            return List.of();
+        }
+        int group = city * horizonDays + Math.floorMod(checkIn.toEpochDay(), horizonDays);
+        int first = start[group];
+        int count = Math.min(limit, start[group + 1] - first);
+        List<Map<String, Object>> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            results.add(toMap(first + i, cities[city], checkIn, checkOut));
+        }
+        return results;
+    }
+
+    private Map<String, Object> toMap(int row, String city, LocalDate checkIn, LocalDate checkOut) {
+        int h = hotel[row];
+        int numberInCity = h % hotelsPerCity + 1;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("hotelId", "INV" + city + numberInCity);
+        result.put("name", BRANDS[brand[h]] + " " + city + " " + numberInCity);
+        result.put("city", city);
+        result.put("checkIn", checkIn.toString());
+        result.put("checkOut", checkOut != null ? checkOut.toString() : checkIn.plusDays(1).toString());
+        result.put("pricePerNight", priceCents[row] / 100.0);
+        result.put("currency", "USD");
+        result.put("rating", ratingTenths[h] / 10.0);
+        List<String> names = new ArrayList<>(AMENITIES.length);
+        for (int a = 0; a < AMENITIES.length; a++) {
+            if ((amenities[h] & 1 << a) != 0) {
+                names.add(AMENITIES[a]);
+            }
+        }
+        result.put("amenities", names);
+        return result;
+    }
+}
@@ -0,0 +1,264 @@
+package com.tbp.service.inventory;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Connecting itinerary search over a {@link FlightTable}, one round per leg: round {@code k}
+ * scans, in departure order, the flights leaving each airport that a {@code k - 1} leg
+ * itinerary ("label") reached, within its layover window. Every airport keeps only labels that
+ * no other label beats on arrival time, price and number of legs at once, so the labels left at
+ * the destination are the Pareto-optimal itineraries.
+ * <p>
+ * Only airports the destination can still be reached from in the remaining legs get labels,
+ * which keeps the search to a few hundred flights however large the network. The first leg
+ * departs on the search date and later legs within {@code maxStops + 1} days of it; a connection
+ * needs at least {@code minConnection} and at most {@code maxLayover} minutes on the ground.
+ * <p>
+ * To bound the work an intermediate airport holds at most {@code maxLabelsPerAirport} labels;
+ * further ones are dropped. Likewise a label there that arrives earlier replaces a later, dearer
+ * one even when the later one could still catch a flight the max layover rules out for the
+ * earlier; both trade completeness for a bounded search.
+ */
+final class ItinerarySearch {
+
+    private static final int ORIGIN_LABEL = 0;
+    private static final int MINUTES_PER_DAY = 1_440;
+
+    private final FlightTable table;
+    private final int minConnection;
+    private final int maxLayover;
+    private final int maxLegs;
+    private final int maxLabelsPerAirport;
+
+    // Labels live in parallel arrays; dropped labels stay in place so parent links remain valid
+    private int[] arrival = new int[256];
+    private int[] price = new int[256];
+    private byte[] legs = new byte[256];
+    private int[] parent = new int[256];
+    private int[] row = new int[256];
+    private int[] next = new int[256];
+    private int[] airport = new int[256];
+    private boolean[] dropped = new boolean[256];
+    private int labels;
+    private final int[] head;
+    private final int[] labelCount;
+    // Fewest legs from each airport to the destination; Byte.MAX_VALUE beyond maxLegs - 1
+    private final byte[] legsToGo;
+
+    ItinerarySearch(FlightTable table, int minConnection, int maxLayover, int maxStops, int maxLabelsPerAirport) {
+        this.table = table;
+        this.minConnection = minConnection;
+        this.maxLayover = maxLayover;
+        this.maxLegs = maxStops + 1;
+        this.maxLabelsPerAirport = maxLabelsPerAirport;
+        this.head = new int[table.airports.length];
+        this.labelCount = new int[table.airports.length];
+        this.legsToGo = new byte[table.airports.length];
+    }
+
+    /** Pareto-optimal itineraries, earliest arrival first. Not thread-safe; use one instance per search. */
+    List<Map<String, Object>> search(String originCode, String destinationCode, LocalDate date, int limit) {
+        int from = table.airport(originCode);
+        int to = table.airport(destinationCode);
+        if (from < 0 || to < 0 || from == to || date == null) {
+            return List.of();
+        }
+        markReachable(to);
+        Arrays.fill(head, -1);
+        Arrays.fill(labelCount, 0);
+        labels = 0;
+        add(from, 0, 0, 0, -1, -1);
+
+        int firstDay = table.day(date);
+        int roundStart = 0;
+        for (int round = 1; round <= maxLegs; round++) {
+            int roundEnd = labels;
+            for (int label = roundStart; label < roundEnd; label++) {
+                if (dropped[label] || airport[label] == to) {
+                    continue;
+                }
+                if (label == ORIGIN_LABEL) {
+                    scan(label, from, to, firstDay, 0, MINUTES_PER_DAY - 1);
+                } else {
+                    scan(label, from, to, firstDay, arrival[label] + minConnection, arrival[label] + maxLayover);
+                }
+            }
+            roundStart = roundEnd;
+        }
+        return itineraries(to, date, limit);
+    }
+
+    // Breadth-first over the inbound routes, up to maxLegs - 1 legs away from the destination
+    private void markReachable(int to) {
+        Arrays.fill(legsToGo, Byte.MAX_VALUE);
+        legsToGo[to] = 0;
+        int[] queue = new int[table.airports.length];
+        int tail = 0;
+        queue[tail++] = to;
+        for (int i = 0; i < tail; i++) {
+            int at = queue[i];
+            if (legsToGo[at] >= maxLegs - 1) {
+                continue;
+            }
+            for (int j = table.inboundStart[at]; j < table.inboundStart[at + 1]; j++) {
+                int previous = table.inbound[j];
+                if (legsToGo[previous] == Byte.MAX_VALUE) {
+                    legsToGo[previous] = (byte) (legsToGo[at] + 1);
+                    queue[tail++] = previous;
+                }
+            }
+        }
+    }
+
+    // Extends the label with every flight leaving its airport between earliest and latest
+    private void scan(int label, int from, int to, int firstDay, int earliest, int latest) {
+        int at = airport[label];
+        int lastOffset = Math.min(maxLegs, latest / MINUTES_PER_DAY);
+        for (int offset = earliest / MINUTES_PER_DAY; offset <= lastOffset; offset++) {
+            int group = at * table.horizonDays + (firstDay + offset) % table.horizonDays;
+            int dayMinute = offset * MINUTES_PER_DAY;
+            int end = table.departureStart[group + 1];
+            for (int i = firstDeparture(group, earliest - dayMinute); i < end; i++) {
+                int connection = table.departures[i];
+                int departure = dayMinute + table.departureMinute[connection];
+                if (departure > latest) {
+                    break;
+                }
+                extend(label, connection, departure, from, to);
+            }
+        }
+    }
+
+    private int firstDeparture(int group, int minute) {
+        int low = table.departureStart[group];
+        int high = table.departureStart[group + 1];
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (table.departureMinute[table.departures[middle]] < minute) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void extend(int label, int connection, int departure, int from, int to) {
+        int destination = table.destination[connection];
+        int legCount = legs[label] + 1;
+        if (destination == from || legCount + legsToGo[destination] > maxLegs) {
+            return;
+        }
+        int arrivalTime = departure + table.durationMinutes[connection];
+        int cost = price[label] + table.priceCents[connection];
+        // Legs only add time, price and stops, so anything an itinerary already found beats is a dead end
+        if (dominated(to, arrivalTime, cost, legCount)
+                || (destination != to && dominated(destination, arrivalTime, cost, legCount))) {
+            return;
+        }
+        if (destination != to && labelCount[destination] >= maxLabelsPerAirport) {
+            return;
+        }
+        removeDominatedBy(destination, arrivalTime, cost, legCount);
+        add(destination, arrivalTime, cost, legCount, label, connection);
+    }
+
+    private boolean dominated(int at, int arrivalTime, int cost, int legCount) {
+        for (int label = head[at]; label >= 0; label = next[label]) {
+            if (arrival[label] <= arrivalTime && price[label] <= cost && legs[label] <= legCount) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void removeDominatedBy(int at, int arrivalTime, int cost, int legCount) {
+        int previous = -1;
+        for (int label = head[at]; label >= 0; label = next[label]) {
+            if (arrivalTime <= arrival[label] && cost <= price[label] && legCount <= legs[label]) {
+                if (previous < 0) {
+                    head[at] = next[label];
+                } else {
+                    next[previous] = next[label];
+                }
+                dropped[label] = true;
+                labelCount[at]--;
+            } else {
+                previous = label;
+            }
+        }
+    }
+
+    private void add(int at, int arrivalTime, int cost, int legCount, int parentLabel, int connection) {
+        if (labels == arrival.length) {
+            int size = labels * 2;
+            arrival = Arrays.copyOf(arrival, size);
+            price = Arrays.copyOf(price, size);
+            legs = Arrays.copyOf(legs, size);
+            parent = Arrays.copyOf(parent, size);
+            row = Arrays.copyOf(row, size);
+            next = Arrays.copyOf(next, size);
+            airport = Arrays.copyOf(airport, size);
+            dropped = Arrays.copyOf(dropped, size);
+        }
+        int label = labels++;
+        arrival[label] = arrivalTime;
+        price[label] = cost;
+        legs[label] = (byte) legCount;
+        parent[label] = parentLabel;
+        row[label] = connection;
+        airport[label] = at;
+        dropped[label] = false;
+        // The origin label stays out of the airport's list so no leg ever returns to it
+        if (label != ORIGIN_LABEL) {
+            next[label] = head[at];
+            head[at] = label;
+            labelCount[at]++;
+        }
+    }
+
+    private List<Map<String, Object>> itineraries(int to, LocalDate date, int limit) {
+        List<Integer> found = new ArrayList<>();
+        for (int label = head[to]; label >= 0; label = next[label]) {
+            found.add(label);
+        }
+        found.sort((a, b) -> arrival[a] != arrival[b] ? Integer.compare(arrival[a], arrival[b]) : Integer.compare(price[a], price[b]));
+
+        List<Map<String, Object>> results = new ArrayList<>(Math.min(limit, found.size()));
+        for (int label : found.subList(0, Math.min(limit, found.size()))) {
+            List<Map<String, Object>> segments = new ArrayList<>(legs[label]);
+            for (int leg = label; leg != ORIGIN_LABEL; leg = parent[leg]) {
+                int connection = row[leg];
+                segments.add(0, table.toMap(connection, date, arrival[leg] - table.durationMinutes[connection]));
+            }
+            Map<String, Object> first = segments.get(0);
+            Map<String, Object> last = segments.get(segments.size() - 1);
+            StringBuilder flightNumbers = new StringBuilder();
+            StringBuilder offerId = new StringBuilder();
+            for (Map<String, Object> segment : segments) {
+                flightNumbers.append(flightNumbers.isEmpty() ? "" : " / ").append(segment.get("flightNumber"));
+                offerId.append(offerId.isEmpty() ? "" : "-").append(segment.get("offerId"));
+            }
+
+            Map<String, Object> itinerary = new LinkedHashMap<>();
+            itinerary.put("flightNumber", flightNumbers.toString());
+            itinerary.put("offerId", offerId.toString());
+            itinerary.put("airline", first.get("airline"));
+            itinerary.put("from", first.get("from"));
+            itinerary.put("to", last.get("to"));
+            itinerary.put("departureTime", first.get("departureTime"));
+            itinerary.put("arrivalTime", last.get("arrivalTime"));
+            itinerary.put("price", price[label] / 100.0);
+            itinerary.put("currency", "USD");
+            itinerary.put("stops", segments.size() - 1);
+            itinerary.put("segments", segments);
+            results.add(itinerary);
+        }
+        return results;
+    }
+}
@@ -0,0 +1,42 @@
+package com.tbp.service.inventory;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Offers served without calling a provider, either when Amadeus is unavailable
+ * ({@link Mode#FALLBACK}) or instead of it ({@link Mode#STANDALONE}), e.g. for load tests.
+ * Results have the same shape as the provider results of {@code ExternalApiService}.
+ */
+public interface OfferInventory {
+
+    enum Mode {
+        /** Not used; searches fall back to the fixed mock offers. */
+        OFF,
+        /** Answers searches that Amadeus could not. */
+        FALLBACK,
+        /** Answers every search; Amadeus is never called. */
+        STANDALONE
+    }
+
+    enum Sort {
+        PRICE,
+        /** Departure for flights, trip duration for cabs; hotels are always ordered by price. */
+        TIME
+    }
+
+    Mode mode();
+
+    List<Map<String, Object>> flights(String origin, String destination, String departureDate, Sort sort);
+
+    /**
+     * Itineraries of up to {@code inventory.connections.max-stops} connecting flights that leave
+     * on {@code departureDate}, keeping only those that no other beats on arrival time, price and
+     * stops together. Each carries its flights under {@code segments}.
+     */
+    List<Map<String, Object>> itineraries(String origin, String destination, String departureDate);
+
+    List<Map<String, Object>> hotels(String cityCode, String checkIn, String checkOut, Sort sort);
+
+    List<Map<String, Object>> cabs(String pickup, String dropoff, String pickupTime, Sort sort);
+}
@@ -0,0 +1,375 @@
+package com.tbp;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.tbp.service.amadeus.AmadeusStub;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Capacity test of the whole application: starts it on an in-memory H2 database against a
+ * local {@link AmadeusStub}, then runs closed-loop clients that each pick a request from a
+ * weighted mix of searches, logins and bookings. Throughput, p50/p90/p99 latency and error
+ * rate per request type are written as JSON to {@code target/load-test/} so runs can be
+ * compared; {@code -Dloadtest.inventory=standalone} serves searches from the generated offer
+ * inventory instead of the stub. Run with {@code mvn test -Pbenchmark -Dtest=LoadTestBenchmark};
+ * every setting below can be overridden with {@code -Dloadtest.<name>=...}.
+ */
+@Tag("benchmark")
+class LoadTestBenchmark {
+
+    private static final Duration DURATION = duration("duration", "30s");
+    private static final Duration WARMUP = duration("warmup", "5s");
+    private static final int CLIENTS = Integer.getInteger("loadtest.clients", 50);
+    private static final Duration THINK_TIME = duration("think-time", "0ms");
+    private static final String MIX = setting("mix", "flights=30,hotels=25,cabs=10,trips=5,login=10,booking=20");
+    // Searches repeat over this many distinct dates, which sets the result-cache hit rate
+    private static final int DISTINCT_SEARCHES = Integer.getInteger("loadtest.distinct-searches", 200);
+    private static final Duration STUB_LATENCY = duration("stub.latency", "100ms");
+    private static final Duration STUB_JITTER = duration("stub.jitter", "50ms");
+    private static final double STUB_ERROR_RATE = Double.parseDouble(setting("stub.error-rate", "0.02"));
+    private static final int STUB_OFFERS = Integer.getInteger("loadtest.stub.offers", 20);
+    // off, fallback (inventory answers when the stub fails) or standalone (the stub is never called)
+    private static final String INVENTORY = setting("inventory", "off");
+    private static final String BCRYPT_STRENGTH = setting("bcrypt-strength", "10");
+    private static final double MAX_ERROR_RATE = Double.parseDouble(setting("max-error-rate", "0.01"));
+    private static final Path OUTPUT = Path.of(setting("output", "target/load-test"));
+
+    private static final LocalDate FIRST_DATE = LocalDate.of(2030, 1, 1);
+    private static final String[] AIRPORTS = {"DEL", "BOM", "BLR", "MAA", "HYD", "CCU"};
+    private static final String PASSWORD = "load-test-password";
+
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    @Test
+    void mixedTrafficStaysWithinErrorBudget() throws Exception {
+        Map<String, Integer> mix = parseMix(MIX);
+        try (AmadeusStub amadeus = AmadeusStub.start(STUB_LATENCY, STUB_JITTER, STUB_ERROR_RATE, STUB_OFFERS, CLIENTS * 4);
+             ConfigurableApplicationContext app = start(amadeus);
+             HttpClient http = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build()) {
+            String baseUrl = "http://127.0.0.1:" + ((WebServerApplicationContext) app).getWebServer().getPort();
+            List<Client> clients = new ArrayList<>();
+            for (int i = 0; i < CLIENTS; i++) {
+                clients.add(Client.register(http, baseUrl, "load-" + i + "@example.com", objectMapper));
+            }
+
+            run(clients, mix, WARMUP);
+            Map<String, Long> upstreamBefore = amadeus.requestCounts();
+            long start = System.nanoTime();
+            List<Map<String, Samples>> results = run(clients, mix, DURATION);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            Map<String, Object> report = report(merge(results), seconds, subtract(amadeus.requestCounts(), upstreamBefore));
+            Path file = write(report);
+            @SuppressWarnings("unchecked")
+            Map<String, Object> total = (Map<String, Object>) report.get("total");
+            System.out.printf("Load test: %.0f req/s, p50 %s ms, p99 %s ms, error rate %.4f -> %s%n",
+                    (double) total.get("throughput"), total.get("p50Ms"), total.get("p99Ms"),
+                    (double) total.get("errorRate"), file.toAbsolutePath());
+            assertTrue((long) total.get("requests") > 0, "no requests completed");
+            assertTrue((double) total.get("errorRate") <= MAX_ERROR_RATE,
+                    "error rate " + total.get("errorRate") + " above " + MAX_ERROR_RATE);
+        }
+    }
+
+    private static ConfigurableApplicationContext start(AmadeusStub amadeus) {
+        return new SpringApplicationBuilder(DemoApplication.class)
+                .properties("server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+                        "amadeus.api.base-url=" + amadeus.baseUrl(),
+                        "amadeus.api.key=stub", "amadeus.api.secret=stub",
+                        "inventory.mode=" + INVENTORY,
+                        // Logins cost what they cost in production, not the fast test strength
+                        "auth.bcrypt.strength=" + BCRYPT_STRENGTH,
+                        // Every client shares one address
+                        "rate-limit.enabled=false",
+                        "booking.backfill.enabled=false",
+                        "logging.level.root=WARN",
+                        // Injected upstream errors would otherwise log a stack trace each
+                        "logging.level.com.github.benmanes.caffeine=ERROR")
+                .run();
+    }
+
+    private List<Map<String, Samples>> run(List<Client> clients, Map<String, Integer> mix, Duration duration)
+            throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Future<Map<String, Samples>>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Client client : clients) {
+                futures.add(executor.submit(() -> client.loop(mix, deadline)));
+            }
+            List<Map<String, Samples>> results = new ArrayList<>();
+            for (Future<Map<String, Samples>> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        }
+    }
+
+    private Map<String, Object> report(Map<String, Samples> byType, double seconds, Map<String, Long> upstream) {
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("durationSeconds", DURATION.toSeconds());
+        config.put("warmupSeconds", WARMUP.toSeconds());
+        config.put("clients", CLIENTS);
+        config.put("thinkTimeMs", THINK_TIME.toMillis());
+        config.put("mix", MIX);
+        config.put("distinctSearches", DISTINCT_SEARCHES);
+        config.put("stubLatencyMs", STUB_LATENCY.toMillis());
+        config.put("stubJitterMs", STUB_JITTER.toMillis());
+        config.put("stubErrorRate", STUB_ERROR_RATE);
+        config.put("stubOffers", STUB_OFFERS);
+        config.put("inventory", INVENTORY);
+        config.put("bcryptStrength", BCRYPT_STRENGTH);
+        config.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        config.put("javaVersion", System.getProperty("java.version"));
+
+        Samples all = new Samples();
+        Map<String, Object> requests = new TreeMap<>();
+        byType.forEach((type, samples) -> {
+            requests.put(type, samples.summary(seconds));
+            all.addAll(samples);
+        });
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("startedAt", Instant.now().minusNanos((long) (seconds * 1e9)).toString());
+        report.put("config", config);
+        report.put("measuredSeconds", Math.round(seconds * 1000) / 1000.0);
+        report.put("total", all.summary(seconds));
+        report.put("requests", requests);
+        report.put("upstreamRequests", new TreeMap<>(upstream));
+        return report;
+    }
+
+    private Path write(Map<String, Object> report) throws IOException {
+        Files.createDirectories(OUTPUT);
+        String stamp = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC).format(Instant.now());
+        Path file = OUTPUT.resolve("load-test-" + stamp + ".json");
+        objectMapper.writeValue(file.toFile(), report);
+        return file;
+    }
+
+    private static Map<String, Samples> merge(List<Map<String, Samples>> perClient) {
+        Map<String, Samples> merged = new TreeMap<>();
+        for (Map<String, Samples> client : perClient) {
+            client.forEach((type, samples) -> merged.computeIfAbsent(type, k -> new Samples()).addAll(samples));
+        }
+        return merged;
+    }
+
+    private static Map<String, Long> subtract(Map<String, Long> after, Map<String, Long> before) {
+        Map<String, Long> delta = new TreeMap<>();
+        after.forEach((name, count) -> delta.put(name, count - before.getOrDefault(name, 0L)));
+        return delta;
+    }
+
+    static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                weights.put(parts[0].trim(), weight);
+            }
+        }
+        for (String type : weights.keySet()) {
+            if (!Client.TYPES.contains(type)) {
+                throw new IllegalArgumentException("Unknown request type in loadtest.mix: " + type);
+            }
+        }
+        return weights;
+    }
+
+    private static String setting(String name, String defaultValue) {
+        return System.getProperty("loadtest." + name, defaultValue);
+    }
+
+    private static Duration duration(String name, String defaultValue) {
+        return DurationStyle.detectAndParse(setting(name, defaultValue));
+    }
+
+    /** One simulated user: its own account and token, recording into samples no other thread touches. */
+    private record Client(HttpClient http, String baseUrl, String email, String token) {
+
+        static final List<String> TYPES = List.of("flights", "hotels", "cabs", "trips", "login", "booking");
+
+        static Client register(HttpClient http, String baseUrl, String email, ObjectMapper objectMapper) throws Exception {
+            HttpResponse<String> response = http.send(post(baseUrl + "/api/auth/register", null,
+                    "{\"email\":\"" + email + "\",\"password\":\"" + PASSWORD + "\"}").build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Registering " + email + " failed: " + response.body());
+            }
+            JsonNode body = objectMapper.readTree(response.body());
+            return new Client(http, baseUrl, email, body.path("token").asText());
+        }
+
+        Map<String, Samples> loop(Map<String, Integer> mix, long deadline) throws InterruptedException {
+            int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+            Map<String, Samples> samples = new TreeMap<>();
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (System.nanoTime() < deadline) {
+                String type = pick(mix, random.nextInt(totalWeight));
+                HttpRequest request = request(type, random);
+                long start = System.nanoTime();
+                int status;
+                try {
+                    status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                } catch (IOException e) {
+                    status = -1;
+                }
+                samples.computeIfAbsent(type, k -> new Samples()).record(System.nanoTime() - start, status);
+                if (!THINK_TIME.isZero()) {
+                    Thread.sleep(THINK_TIME.toMillis());
+                }
+            }
+            return samples;
+        }
+
+        private static String pick(Map<String, Integer> mix, int roll) {
+            for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+                roll -= entry.getValue();
+                if (roll < 0) {
+                    return entry.getKey();
+                }
+            }
+            throw new IllegalStateException("Empty request mix");
+        }
+
+        private HttpRequest request(String type, ThreadLocalRandom random) {
+            String date = FIRST_DATE.plusDays(random.nextInt(DISTINCT_SEARCHES)).toString();
+            String from = AIRPORTS[random.nextInt(AIRPORTS.length)];
+            String to = AIRPORTS[(Arrays.asList(AIRPORTS).indexOf(from) + 1) % AIRPORTS.length];
+            return switch (type) {
+                case "flights" -> post(baseUrl + "/api/flights/search", null,
+                        "{\"from\":\"" + from + "\",\"to\":\"" + to + "\",\"departureDate\":\"" + date + "\",\"adults\":1}").build();
+                case "hotels" -> post(baseUrl + "/api/hotels/search", null,
+                        "{\"city\":\"" + to + "\",\"checkIn\":\"" + date + "\",\"checkOut\":\""
+                                + LocalDate.parse(date).plusDays(2) + "\",\"adults\":1}").build();
+                case "cabs" -> post(baseUrl + "/api/cabs/search", null,
+                        "{\"pickup\":\"Airport\",\"dropoff\":\"Station\",\"pickupTime\":\"" + date + "T10:00\"}").build();
+                case "trips" -> post(baseUrl + "/api/trips/search", null,
+                        "{\"from\":\"" + from + "\",\"to\":\"" + to + "\",\"departureDate\":\"" + date
+                                + "\",\"adults\":1,\"pickup\":\"Airport\",\"dropoff\":\"Hotel\"}").build();
+                case "login" -> post(baseUrl + "/api/auth/login", null,
+                        "{\"email\":\"" + email + "\",\"password\":\"" + PASSWORD + "\"}").build();
+                case "booking" -> post(baseUrl + "/api/flights/book", token,
+                        "{\"flightNumber\":\"AI" + random.nextInt(100, 1000) + "\",\"from\":\"" + from + "\",\"to\":\""
+                                + to + "\",\"departureDate\":\"" + date + "\",\"price\":4999.00,\"currency\":\"INR\"}")
+                        .header("Idempotency-Key", UUID.randomUUID().toString())
+                        .build();
+                default -> throw new IllegalArgumentException(type);
+            };
+        }
+
+        private static HttpRequest.Builder post(String url, String token, String json) {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(json));
+            if (token != null) {
+                builder.header("Authorization", "Bearer " + token);
+            }
+            return builder;
+        }
+    }
+
+    /** Latencies and status codes of one request type; not thread-safe, each client keeps its own. */
+    private static final class Samples {
+        private long[] latencies = new long[1024];
+        private int count;
+        private final Map<Integer, Long> statuses = new TreeMap<>();
+
+        void record(long latencyNanos, int status) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+            statuses.merge(status, 1L, Long::sum);
+        }
+
+        void addAll(Samples other) {
+            if (count + other.count > latencies.length) {
+                latencies = Arrays.copyOf(latencies, Math.max(latencies.length * 2, count + other.count));
+            }
+            System.arraycopy(other.latencies, 0, latencies, count, other.count);
+            count += other.count;
+            other.statuses.forEach((status, n) -> statuses.merge(status, n, Long::sum));
+        }
+
+        // Non-2xx responses and transport failures both count as errors
+        Map<String, Object> summary(double seconds) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            long errors = statuses.entrySet().stream()
+                    .filter(e -> e.getKey() < 200 || e.getKey() >= 300)
+                    .mapToLong(Map.Entry::getValue)
+                    .sum();
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("requests", (long) count);
+            summary.put("throughput", round(count / seconds));
+            summary.put("errors", errors);
+            summary.put("errorRate", count == 0 ? 0.0 : round((double) errors / count, 4));
+            summary.put("p50Ms", percentile(sorted, 0.50));
+            summary.put("p90Ms", percentile(sorted, 0.90));
+            summary.put("p99Ms", percentile(sorted, 0.99));
+            summary.put("maxMs", count == 0 ? 0.0 : millis(sorted[count - 1]));
+            Map<String, Long> byStatus = new LinkedHashMap<>();
+            statuses.forEach((status, n) -> byStatus.put(status < 0 ? "io-error" : String.valueOf(status), n));
+            summary.put("statuses", byStatus);
+            return summary;
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return millis(sorted[Math.max(0, index)]);
+        }
+
+        private static double millis(long nanos) {
+            return round(nanos / (double) TimeUnit.MILLISECONDS.toNanos(1), 3);
+        }
+
+        private static double round(double value) {
+            return round(value, 1);
+        }
+
+        private static double round(double value, int decimals) {
+            double scale = Math.pow(10, decimals);
+            return Math.round(value * scale) / scale;
+        }
+    }
+}
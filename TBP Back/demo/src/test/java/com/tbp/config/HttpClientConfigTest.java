@@ -0,0 +1,102 @@
+package com.tbp.config;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HttpClientConfigTest {
+
+    private final HttpClientConfig config = new HttpClientConfig();
+    private HttpServer server;
+    private CloseableHttpClient httpClient;
+    private RestTemplate restTemplate;
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/fast", exchange -> {
+            byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        // Headers at once, then a body that trickles in well past the total deadline
+        server.createContext("/slow", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                for (int i = 0; i < 20; i++) {
+                    out.write('x');
+                    out.flush();
+                    Thread.sleep(100);
+                }
+            } catch (InterruptedException | IOException e) {
+                // Client went away
+            }
+        });
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+
+        ReflectionTestUtils.setField(config, "maxConnections", 10);
+        ReflectionTestUtils.setField(config, "maxConnectionsPerRoute", 10);
+        ReflectionTestUtils.setField(config, "poolTimeout", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(config, "connectTimeout", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(config, "readTimeout", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(config, "totalTimeout", Duration.ofMillis(500));
+        ReflectionTestUtils.setField(config, "keepAlive", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(config, "connectionTtl", Duration.ofMinutes(5));
+        PoolingHttpClientConnectionManager connectionManager = config.upstreamConnectionManager(new SimpleMeterRegistry());
+        httpClient = config.upstreamHttpClient(connectionManager);
+        restTemplate = config.upstreamRestTemplate(new RestTemplateBuilder(), httpClient);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        httpClient.close();
+        config.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    void completedCallsLeaveNoDeadlineBehind() {
+        for (int i = 0; i < 50; i++) {
+            assertEquals("ok", restTemplate.getForObject(baseUrl + "/fast", String.class));
+        }
+
+        assertEquals(0, deadlines().getQueue().size());
+    }
+
+    @Test
+    void bodyStillArrivingAtTheDeadlineIsAborted() {
+        long start = System.nanoTime();
+        assertThrows(RestClientException.class, () -> restTemplate.getForObject(baseUrl + "/slow", String.class));
+
+        long elapsedMs = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        assertTrue(elapsedMs < 1_500, "aborted after " + elapsedMs + " ms");
+        assertEquals(0, deadlines().getQueue().size());
+    }
+
+    private ScheduledThreadPoolExecutor deadlines() {
+        return (ScheduledThreadPoolExecutor) ReflectionTestUtils.getField(config, "deadlines");
+    }
+}
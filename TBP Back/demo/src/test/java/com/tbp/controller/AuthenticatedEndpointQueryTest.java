@@ -0,0 +1,84 @@
+package com.tbp.controller;
+
+import com.tbp.model.User;
+import com.tbp.repository.UserRepository;
+import com.tbp.security.JwtUtil;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Counts the SQL statements each authenticated request issues, first with a cold user cache and
+ * then once the user has been resolved.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+class AuthenticatedEndpointQueryTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepo;
+    @Autowired
+    private JwtUtil jwtUtil;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private String bearer;
+
+    @BeforeEach
+    void setUp() {
+        String email = "queries-" + System.nanoTime() + "@example.com";
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("{noop}secret");
+        userRepo.save(user);
+        bearer = "Bearer " + jwtUtil.generateToken(email);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void listingBookingsSkipsUserLookupOnceCached() throws Exception {
+        long cold = queries(get("/api/bookings").header("Authorization", bearer));
+        long warm = queries(get("/api/bookings").header("Authorization", bearer));
+
+        System.out.printf("GET /api/bookings: %d queries cold, %d queries warm%n", cold, warm);
+        assertEquals(2, cold);
+        assertEquals(1, warm);
+    }
+
+    @Test
+    void creatingBookingInsertsAndBumpsDataVersion() throws Exception {
+        queries(get("/api/user/profile").header("Authorization", bearer));
+
+        long create = queries(post("/api/bookings").header("Authorization", bearer)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"type\":\"Cab\",\"details\":\"Cab from A to B at 10:00\"}"));
+        long profile = queries(get("/api/user/profile").header("Authorization", bearer));
+
+        System.out.printf("POST /api/bookings: %d queries, GET /api/user/profile: %d queries (warm)%n", create, profile);
+        // The insert and the user's data_version bump
+        assertEquals(2, create);
+        assertEquals(0, profile);
+    }
+
+    private long queries(RequestBuilder request) throws Exception {
+        long before = statistics.getPrepareStatementCount();
+        mockMvc.perform(request).andExpect(status().isOk());
+        return statistics.getPrepareStatementCount() - before;
+    }
+}
@@ -0,0 +1,152 @@
+package com.tbp.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tbp.model.User;
+import com.tbp.repository.UserRepository;
+import com.tbp.security.JwtUtil;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The dashboard over a real connection, so Tomcat's compression applies: conditional requests
+ * with the current ETag get 304 after a single users-table read, and writes change the ETag.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "server.compression.enabled=true",
+        "server.compression.mime-types=application/json,text/plain",
+        "server.compression.min-response-size=1KB"
+})
+class DashboardEndpointTest {
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private UserRepository userRepo;
+    @Autowired
+    private JwtUtil jwtUtil;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private Statistics statistics;
+    private String bearer;
+
+    @BeforeEach
+    void setUp() {
+        String email = "dashboard-" + System.nanoTime() + "@example.com";
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("{noop}secret");
+        user.setName("Dash");
+        userRepo.save(user);
+        bearer = "Bearer " + jwtUtil.generateToken(email);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void unchangedDashboardRevalidatesWithoutReadingBookings() throws Exception {
+        book("Flight", "Flight AI101 from DEL to BOM on 2025-10-20");
+        book("Cab", "Cab from A to B at 10:00");
+
+        HttpResponse<String> first = get(null);
+        assertEquals(200, first.statusCode());
+        String etag = first.headers().firstValue("ETag").orElseThrow();
+        assertEquals("no-cache, private", first.headers().firstValue("Cache-Control").orElseThrow());
+        JsonNode body = objectMapper.readTree(first.body());
+        assertEquals("Dash", body.path("profile").path("name").asText());
+        assertEquals(2, body.path("bookingCounts").path("total").asLong());
+        assertEquals(1, body.path("bookingCounts").path("flight").asLong());
+        assertEquals(2, body.path("recentBookings").size());
+
+        long before = statistics.getPrepareStatementCount();
+        HttpResponse<String> revalidated = get(etag);
+        long queries = statistics.getPrepareStatementCount() - before;
+        System.out.printf("GET /api/dashboard: %d queries for a 304%n", queries);
+        assertEquals(304, revalidated.statusCode());
+        assertEquals(etag, revalidated.headers().firstValue("ETag").orElseThrow());
+        assertEquals(1, queries);
+
+        book("Hotel", "Hotel Taj in Mumbai from 2025-10-20 to 2025-10-22");
+        HttpResponse<String> afterBooking = get(etag);
+        assertEquals(200, afterBooking.statusCode());
+        String bookedEtag = afterBooking.headers().firstValue("ETag").orElseThrow();
+        assertNotEquals(etag, bookedEtag);
+        assertEquals(3, objectMapper.readTree(afterBooking.body()).path("bookingCounts").path("total").asLong());
+
+        send(HttpRequest.newBuilder(uri("/api/user/profile")).header("Authorization", bearer)
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString("{\"name\":\"Renamed\"}")));
+        HttpResponse<String> afterProfile = get(bookedEtag);
+        assertEquals(200, afterProfile.statusCode());
+        assertEquals("Renamed", objectMapper.readTree(afterProfile.body()).path("profile").path("name").asText());
+    }
+
+    @Test
+    void largeDashboardIsGzippedAndStillRevalidates() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            book("Flight", "Flight AI" + (100 + i) + " from DEL to BOM on 2025-10-20");
+        }
+        HttpResponse<byte[]> compressed = client.send(HttpRequest.newBuilder(uri("/api/dashboard"))
+                .header("Authorization", bearer).header("Accept-Encoding", "gzip").build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(200, compressed.statusCode());
+        assertEquals("gzip", compressed.headers().firstValue("Content-Encoding").orElseThrow());
+        String json;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed.body()))) {
+            json = new String(in.readAllBytes());
+        }
+        System.out.printf("GET /api/dashboard: %d bytes gzipped, %d bytes of JSON%n", compressed.body().length, json.length());
+        assertEquals(10, objectMapper.readTree(json).path("recentBookings").size());
+        assertTrue(compressed.body().length < json.length());
+
+        String etag = compressed.headers().firstValue("ETag").orElseThrow();
+        assertEquals(304, get(etag).statusCode());
+        assertEquals(304, get(etag.substring(2)).statusCode());
+    }
+
+    private HttpResponse<String> get(String ifNoneMatch) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri("/api/dashboard")).header("Authorization", bearer);
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        return send(request);
+    }
+
+    private void book(String type, String details) throws IOException, InterruptedException {
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/api/bookings"))
+                .header("Authorization", bearer).header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"type\":\"" + type + "\",\"details\":\"" + details + "\"}")));
+        assertEquals(200, response.statusCode());
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
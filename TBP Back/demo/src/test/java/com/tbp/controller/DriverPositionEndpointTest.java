@@ -0,0 +1,76 @@
+package com.tbp.controller;
+
+import com.tbp.security.JwtUtil;
+import com.tbp.service.cabs.CabEngine;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "cabs.engine.enabled=true",
+        "cabs.engine.driver-accounts=driver1@example.com,driver2@example.com"
+})
+@AutoConfigureMockMvc
+class DriverPositionEndpointTest {
+
+    private static final String POSITION = "{\"lat\":28.6,\"lon\":77.2,\"available\":true}";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtUtil jwtUtil;
+    @Autowired
+    private CabEngine cabEngine;
+
+    @Test
+    void customersCannotReportOrRemoveDrivers() throws Exception {
+        String customer = "Bearer " + jwtUtil.generateToken("customer@example.com");
+
+        mockMvc.perform(put("/api/cabs/drivers/D1/position").header("Authorization", customer)
+                        .contentType(MediaType.APPLICATION_JSON).content(POSITION))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(delete("/api/cabs/drivers/D1/position").header("Authorization", customer))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(put("/api/cabs/drivers/D1/position")
+                        .contentType(MediaType.APPLICATION_JSON).content(POSITION))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void driverAccountsReportAndRemoveTheirOwnPosition() throws Exception {
+        String driver = "Bearer " + jwtUtil.generateToken("driver1@example.com");
+
+        mockMvc.perform(put("/api/cabs/drivers/driver1@example.com/position").header("Authorization", driver)
+                        .contentType(MediaType.APPLICATION_JSON).content(POSITION))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/api/cabs/drivers/driver1@example.com/position").header("Authorization", driver))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void driversCannotMoveOrRemoveOtherDrivers() throws Exception {
+        String driver = "Bearer " + jwtUtil.generateToken("driver1@example.com");
+        String other = "Bearer " + jwtUtil.generateToken("driver2@example.com");
+        mockMvc.perform(put("/api/cabs/drivers/driver2@example.com/position").header("Authorization", other)
+                        .contentType(MediaType.APPLICATION_JSON).content(POSITION))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(put("/api/cabs/drivers/driver2@example.com/position").header("Authorization", driver)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"lat\":28.6,\"lon\":77.2,\"available\":false}"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(delete("/api/cabs/drivers/driver2@example.com/position").header("Authorization", driver))
+                .andExpect(status().isForbidden());
+        // Still listed and available
+        assertTrue(cabEngine.quotes("28.6,77.2", "28.7,77.2", null).stream()
+                .anyMatch(quote -> "driver2@example.com".equals(quote.get("providerId"))));
+    }
+}
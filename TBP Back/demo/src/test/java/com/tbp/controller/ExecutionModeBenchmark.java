@@ -0,0 +1,122 @@
+package com.tbp.controller;
+
+import com.tbp.DemoApplication;
+import com.tbp.service.amadeus.AmadeusStub;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Concurrent flight searches against a stubbed Amadeus that answers after a fixed delay, once
+ * with a bounded Tomcat platform worker pool and once with {@code spring.threads.virtual.enabled}.
+ * Each search uses a distinct date, so the result cache never answers. Run with
+ * {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class ExecutionModeBenchmark {
+
+    private static final int UPSTREAM_LATENCY_MS = 500;
+    private static final int WORKER_THREADS = 50;
+    private static final int CONCURRENCY = 300;
+    private static final int WARMUP = 600;
+    private static final int SEARCHES = 3_000;
+
+    private static AmadeusStub amadeus;
+    private static final AtomicInteger dateOffset = new AtomicInteger();
+
+    @BeforeAll
+    static void startUpstream() throws IOException {
+        amadeus = AmadeusStub.start(Duration.ofMillis(UPSTREAM_LATENCY_MS), Duration.ZERO, 0, 3, CONCURRENCY * 2);
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        amadeus.close();
+    }
+
+    @Test
+    void virtualThreadsSustainMoreConcurrentSearches() throws Exception {
+        double platform = searchesPerSecond(false);
+        double virtual = searchesPerSecond(true);
+
+        System.out.printf("Flight searches/s with %d concurrent clients and %d ms upstream latency: "
+                        + "%d platform workers %.0f, virtual threads %.0f (%.1fx)%n",
+                CONCURRENCY, UPSTREAM_LATENCY_MS, WORKER_THREADS, platform, virtual, virtual / platform);
+        assertTrue(virtual > platform, "virtual threads should not be bounded by the worker pool");
+    }
+
+    private double searchesPerSecond(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext app = new SpringApplicationBuilder(DemoApplication.class)
+                .properties("server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "server.tomcat.threads.max=" + WORKER_THREADS,
+                        "amadeus.api.base-url=" + amadeus.baseUrl(),
+                        "amadeus.api.key=stub", "amadeus.api.secret=stub",
+                        // Let the upstream pool admit every search so the server threads are the limit
+                        "upstream.http.max-connections=" + CONCURRENCY,
+                        "upstream.http.max-connections-per-route=" + CONCURRENCY,
+                        "upstream.http.pool-timeout=30s",
+                        // ... and the flight-offers bulkhead too, or most searches get the instant mock fallback
+                        "upstream.bulkhead.flightOffers.max-concurrent-calls=" + CONCURRENCY,
+                        "upstream.bulkhead.flightOffers.queue-capacity=" + CONCURRENCY,
+                        "upstream.bulkhead.flightOffers.max-wait=30s",
+                        // Every search comes from one client address
+                        "rate-limit.enabled=false",
+                        "logging.level.root=WARN")
+                .run();
+             HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build()) {
+            int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+            run(client, port, WARMUP);
+            long upstreamBefore = amadeus.requestCounts().getOrDefault(AmadeusStub.FLIGHT_OFFERS, 0L);
+            long start = System.nanoTime();
+            run(client, port, SEARCHES);
+            double perSecond = SEARCHES * 1e9 / (System.nanoTime() - start);
+            // Every search must have reached the upstream, not the fallback
+            assertEquals(SEARCHES, amadeus.requestCounts().get(AmadeusStub.FLIGHT_OFFERS) - upstreamBefore);
+            return perSecond;
+        }
+    }
+
+    private static void run(HttpClient client, int port, int searches) throws Exception {
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        AtomicInteger failures = new AtomicInteger();
+        CompletableFuture<?>[] responses = new CompletableFuture<?>[searches];
+        for (int i = 0; i < searches; i++) {
+            inFlight.acquire();
+            String date = LocalDate.of(2030, 1, 1).plusDays(dateOffset.getAndIncrement()).toString();
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/api/flights/search"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"from\":\"DEL\",\"to\":\"BOM\",\"departureDate\":\"" + date + "\",\"adults\":1}"))
+                    .build();
+            responses[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        if (error != null || response.statusCode() != 200) {
+                            failures.incrementAndGet();
+                        }
+                        inFlight.release();
+                    });
+        }
+        CompletableFuture.allOf(responses).exceptionally(e -> null).join();
+        assertEquals(0, failures.get(), "searches failed");
+    }
+}
@@ -0,0 +1,126 @@
+package com.tbp.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tbp.model.User;
+import com.tbp.repository.BookingRepository;
+import com.tbp.repository.UserRepository;
+import com.tbp.security.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class IdempotentBookingTest {
+
+    private static final String FLIGHT = "{\"flightNumber\":\"AI101\",\"from\":\"DEL\",\"to\":\"BOM\",\"departureDate\":\"2025-10-20\"}";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepo;
+    @Autowired
+    private BookingRepository bookingRepo;
+    @Autowired
+    private JwtUtil jwtUtil;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Long userId;
+    private String bearer;
+
+    @BeforeEach
+    void setUp() {
+        String email = "idempotent-" + System.nanoTime() + "@example.com";
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("{noop}secret");
+        userId = userRepo.save(user).getId();
+        bearer = "Bearer " + jwtUtil.generateToken(email);
+    }
+
+    @Test
+    void retryReplaysFirstResponseWithoutInsertingAgain() throws Exception {
+        long first = bookingId(bookFlight("retry-1", FLIGHT).andExpect(status().isOk()).andReturn());
+        long replayed = bookingId(bookFlight("retry-1", FLIGHT)
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andReturn());
+
+        assertEquals(first, replayed);
+        assertEquals(1, bookings());
+    }
+
+    @Test
+    void reusingKeyWithDifferentRequestIsRejected() throws Exception {
+        bookFlight("reuse-1", FLIGHT).andExpect(status().isOk());
+
+        bookFlight("reuse-1", FLIGHT.replace("AI101", "AI202")).andExpect(status().isUnprocessableEntity());
+        assertEquals(1, bookings());
+    }
+
+    @Test
+    void reusingKeyWithRequestOfEqualHashCodeIsRejected() throws Exception {
+        // "Aa" and "BB" share a String hash code, so both requests have the same hashCode()
+        bookFlight("collide-1", FLIGHT.replace("AI101", "Aa101")).andExpect(status().isOk());
+
+        bookFlight("collide-1", FLIGHT.replace("AI101", "BB101")).andExpect(status().isUnprocessableEntity());
+        assertEquals(1, bookings());
+    }
+
+    @Test
+    void concurrentDuplicatesCreateOneBooking() throws Exception {
+        List<Future<Long>> attempts = new ArrayList<>();
+        try (ExecutorService clients = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 8; i++) {
+                attempts.add(clients.submit(() -> bookingId(bookFlight("burst-1", FLIGHT)
+                        .andExpect(status().isOk()).andReturn())));
+            }
+        }
+
+        Set<Long> ids = new HashSet<>();
+        for (Future<Long> attempt : attempts) {
+            ids.add(attempt.get());
+        }
+        assertEquals(1, ids.size());
+        assertEquals(1, bookings());
+    }
+
+    private ResultActions bookFlight(String key, String body) throws Exception {
+        return mockMvc.perform(post("/api/flights/book")
+                .header("Authorization", bearer)
+                .header("Idempotency-Key", key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body));
+    }
+
+    private long bookingId(MvcResult result) throws Exception {
+        JsonNode booking = objectMapper.readTree(result.getResponse().getContentAsByteArray());
+        return booking.get("id").asLong();
+    }
+
+    private int bookings() {
+        return bookingRepo.findByUserIdAndIdLessThanOrderByIdDesc(userId, Long.MAX_VALUE, Limit.of(10)).size();
+    }
+}
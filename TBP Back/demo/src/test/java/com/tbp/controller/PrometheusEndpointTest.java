@@ -0,0 +1,67 @@
+package com.tbp.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The test application.properties replaces the main one, so the metrics settings are repeated here
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "management.server.port=0",
+        "management.endpoints.web.exposure.include=health,prometheus",
+        "management.metrics.tags.application=tbp",
+        "management.metrics.distribution.percentiles-histogram.http.server.requests=true"
+})
+@AutoConfigureObservability(tracing = false)
+class PrometheusEndpointTest {
+
+    @LocalServerPort
+    private int port;
+    @LocalManagementPort
+    private int managementPort;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void scrapeOnTheManagementPortExposesHotPathHistogramsWithoutAuthentication() throws Exception {
+        HttpResponse<String> search = send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/cabs/search"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"pickup\":\"Airport\",\"dropoff\":\"Station\",\"pickupTime\":\"2025-10-20T10:00\"}")));
+        assertEquals(200, search.statusCode());
+        send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/bookings"))
+                .header("Authorization", "Bearer not-a-token"));
+
+        HttpResponse<String> scrape = send(HttpRequest.newBuilder(
+                URI.create("http://localhost:" + managementPort + "/actuator/prometheus")));
+        assertEquals(200, scrape.statusCode());
+        String body = scrape.body();
+        assertTrue(body.contains("http_server_requests_seconds_bucket{"));
+        assertTrue(body.contains("search_requests_seconds_count{application=\"tbp\",product=\"cabs\",source=\"mock\"}"));
+        assertTrue(body.contains("auth_jwt_verification_seconds_bucket{application=\"tbp\",outcome=\"invalid\""));
+        assertTrue(body.contains("hikaricp_connections_active"));
+        assertTrue(body.contains("auth_password_hashing_seconds_bucket"));
+    }
+
+    @Test
+    void applicationPortDoesNotServeTheScrape() throws Exception {
+        HttpResponse<String> scrape = send(HttpRequest.newBuilder(
+                URI.create("http://localhost:" + port + "/actuator/prometheus")));
+        assertNotEquals(200, scrape.statusCode());
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,58 @@
+package com.tbp.security;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JwtUtilTest {
+
+    @Test
+    void repeatVerificationIsServedFromCache() {
+        JwtUtil jwtUtil = jwtUtil(3_600_000L);
+        String token = jwtUtil.generateToken("user@example.com");
+
+        VerifiedToken first = jwtUtil.verify(token);
+
+        assertEquals("user@example.com", first.subject());
+        assertSame(first, jwtUtil.verify(token));
+    }
+
+    @Test
+    void cachedTokenIsRejectedOnceExpired() throws InterruptedException {
+        JwtUtil jwtUtil = jwtUtil(1_500L);
+        String token = jwtUtil.generateToken("user@example.com");
+        Instant expiresAt = jwtUtil.verify(token).expiresAt();
+
+        Thread.sleep(Math.max(0, expiresAt.toEpochMilli() - System.currentTimeMillis()) + 50);
+
+        assertThrows(ExpiredJwtException.class, () -> jwtUtil.verify(token));
+    }
+
+    @Test
+    void tamperedTokenIsRejected() {
+        JwtUtil jwtUtil = jwtUtil(3_600_000L);
+        String token = jwtUtil.generateToken("user@example.com");
+        jwtUtil.verify(token);
+
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThrows(JwtException.class, () -> jwtUtil.verify(tampered));
+    }
+
+    private static JwtUtil jwtUtil(long expirationMs) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "jwtSecret", "test-secret-for-jwt-util-".repeat(3));
+        ReflectionTestUtils.setField(jwtUtil, "jwtExpirationMs", expirationMs);
+        ReflectionTestUtils.setField(jwtUtil, "cacheEnabled", true);
+        ReflectionTestUtils.setField(jwtUtil, "cacheMaxSize", 100L);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+}
@@ -0,0 +1,71 @@
+package com.tbp.security;
+
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.security.Key;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares CPU time per authenticated request between the previous flow (filter, validateToken,
+ * isTokenExpired and the controller each parsing the token with a fresh parser) and a single
+ * {@link JwtUtil#verify} call. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class JwtVerificationBenchmark {
+
+    private static final int WARMUP = 5_000;
+    private static final int ITERATIONS = 10_000;
+
+    @Test
+    void verifyOnceUsesLessCpuThanFourParses() {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "jwtSecret", "benchmark-secret-".repeat(4));
+        ReflectionTestUtils.setField(jwtUtil, "jwtExpirationMs", 3_600_000L);
+        jwtUtil.init();
+        Key key = (Key) ReflectionTestUtils.getField(jwtUtil, "signingKey");
+        String token = jwtUtil.generateToken("user@example.com");
+
+        long previousNanos = cpuPerRequest(() -> previousFlow(key, token));
+        long verifyOnceNanos = cpuPerRequest(() -> jwtUtil.verify(token).subject());
+
+        System.out.printf("JWT CPU per request: previous %d us, verify once %d us (%.1fx)%n",
+                previousNanos / 1000, verifyOnceNanos / 1000, (double) previousNanos / verifyOnceNanos);
+        assertTrue(verifyOnceNanos < previousNanos, "verifying once should cost less CPU than four parses");
+    }
+
+    private long cpuPerRequest(Request request) {
+        for (int i = 0; i < WARMUP; i++) {
+            assertEquals("user@example.com", request.authenticate());
+        }
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long before = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            request.authenticate();
+        }
+        return (threads.getCurrentThreadCpuTime() - before) / ITERATIONS;
+    }
+
+    // Filter getEmailFromToken, validateToken (getEmailFromToken + isTokenExpired), controller getEmailFromHeader
+    private static String previousFlow(Key key, String token) {
+        String email = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody().getSubject();
+        String validated = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody().getSubject();
+        Date expiration = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody().getExpiration();
+        if (!validated.equals(email) || expiration.before(new Date())) {
+            return null;
+        }
+        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody().getSubject();
+    }
+
+    @FunctionalInterface
+    private interface Request {
+        String authenticate();
+    }
+}
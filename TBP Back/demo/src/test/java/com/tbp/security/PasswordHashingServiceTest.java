@@ -0,0 +1,102 @@
+package com.tbp.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PasswordHashingServiceTest {
+
+    private PasswordHashingService service;
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void matchingPasswordWithOutdatedCostIsRehashed() {
+        service = service(5, 1, 10);
+        String stored = new BCryptPasswordEncoder(4).encode("s3cret");
+
+        PasswordHashingService.Verification verification = service.verify("s3cret", stored);
+
+        assertTrue(verification.matches());
+        assertTrue(verification.upgradedHash().startsWith("$2a$05$"));
+        assertTrue(service.encoder().matches("s3cret", verification.upgradedHash()));
+    }
+
+    @Test
+    void currentCostAndWrongPasswordAreNotRehashed() {
+        service = service(5, 1, 10);
+        String stored = service.hash("s3cret");
+
+        assertNull(service.verify("s3cret", stored).upgradedHash());
+        PasswordHashingService.Verification wrong = service.verify("guess", new BCryptPasswordEncoder(4).encode("s3cret"));
+        assertFalse(wrong.matches());
+        assertNull(wrong.upgradedHash());
+    }
+
+    @Test
+    void fullQueueIsRejectedWith503() throws Exception {
+        service = service(12, 1, 1);
+        CountDownLatch started = new CountDownLatch(2);
+        CompletableFuture<?> running = CompletableFuture.runAsync(() -> {
+            started.countDown();
+            service.hash("first");
+        });
+        CompletableFuture<?> queued = CompletableFuture.runAsync(() -> {
+            started.countDown();
+            service.hash("second");
+        });
+        started.await();
+        Thread.sleep(50);
+
+        ResponseStatusException rejected = assertThrows(ResponseStatusException.class, () -> service.hash("third"));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getStatusCode());
+        running.join();
+        queued.join();
+    }
+
+    @Test
+    void calibrationStaysWithinBounds() {
+        service = new PasswordHashingService();
+        ReflectionTestUtils.setField(service, "configuredStrength", -1);
+        ReflectionTestUtils.setField(service, "minStrength", 4);
+        ReflectionTestUtils.setField(service, "maxStrength", 6);
+        ReflectionTestUtils.setField(service, "targetLatency", Duration.ofSeconds(10));
+        configurePool(service, 1, 10);
+        service.init();
+
+        // A generous target climbs to the cap
+        assertEquals(6, service.strength());
+    }
+
+    private static PasswordHashingService service(int strength, int threads, int queueCapacity) {
+        PasswordHashingService service = new PasswordHashingService();
+        ReflectionTestUtils.setField(service, "configuredStrength", strength);
+        configurePool(service, threads, queueCapacity);
+        service.init();
+        return service;
+    }
+
+    private static void configurePool(PasswordHashingService service, int threads, int queueCapacity) {
+        ReflectionTestUtils.setField(service, "threads", threads);
+        ReflectionTestUtils.setField(service, "queueCapacity", queueCapacity);
+        ReflectionTestUtils.setField(service, "waitTimeout", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+    }
+}
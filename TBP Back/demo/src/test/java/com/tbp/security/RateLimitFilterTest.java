@@ -0,0 +1,42 @@
+package com.tbp.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"rate-limit.cabs.rate=0.5", "rate-limit.cabs.burst=2"})
+@AutoConfigureMockMvc
+class RateLimitFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void clientOverTheLimitGets429WithRetryAfter() throws Exception {
+        searchCabs("10.1.0.1").andExpect(status().isOk());
+        searchCabs("10.1.0.1").andExpect(status().isOk());
+
+        searchCabs("10.1.0.1")
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "2"));
+        searchCabs("10.1.0.2").andExpect(status().isOk());
+    }
+
+    private ResultActions searchCabs(String clientAddress) throws Exception {
+        return mockMvc.perform(post("/api/cabs/search")
+                .with(request -> {
+                    request.setRemoteAddr(clientAddress);
+                    return request;
+                })
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"pickup\":\"Airport\",\"dropoff\":\"Station\",\"pickupTime\":\"2025-10-20T10:00\"}"));
+    }
+}
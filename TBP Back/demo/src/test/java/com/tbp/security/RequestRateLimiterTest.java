@@ -0,0 +1,71 @@
+package com.tbp.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private RequestRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("rate-limit.rate", "2")
+                .withProperty("rate-limit.burst", "3")
+                .withProperty("rate-limit.hotels.burst", "1");
+        limiter = new RequestRateLimiter();
+        ReflectionTestUtils.setField(limiter, "maxKeys", 1_000L);
+        ReflectionTestUtils.setField(limiter, "idleTimeout", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(limiter, "environment", environment);
+        ReflectionTestUtils.setField(limiter, "meterRegistry", new SimpleMeterRegistry());
+        limiter.init();
+    }
+
+    @Test
+    void burstIsAllowedThenClientWaitsForTheNextToken() {
+        long now = 1_000 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("flights", "ip:10.0.0.1", now));
+        }
+
+        long wait = limiter.tryAcquire("flights", "ip:10.0.0.1", now);
+        assertEquals(SECOND / 2, wait);
+        // Rejected attempts do not consume tokens
+        assertEquals(0, limiter.tryAcquire("flights", "ip:10.0.0.1", now + wait));
+    }
+
+    @Test
+    void tokensRefillAtTheConfiguredRate() {
+        long now = 1_000 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("flights", "user:a@example.com", now);
+        }
+
+        long later = now + 2 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("flights", "user:a@example.com", later));
+        }
+        assertTrue(limiter.tryAcquire("flights", "user:a@example.com", later) > 0);
+    }
+
+    @Test
+    void clientsAndEndpointsHaveSeparateBuckets() {
+        long now = 1_000 * SECOND;
+        assertEquals(0, limiter.tryAcquire("hotels", "ip:10.0.0.1", now));
+        assertTrue(limiter.tryAcquire("hotels", "ip:10.0.0.1", now) > 0);
+
+        assertEquals(0, limiter.tryAcquire("hotels", "ip:10.0.0.2", now));
+        assertEquals(0, limiter.tryAcquire("flights", "ip:10.0.0.1", now));
+    }
+}
@@ -0,0 +1,105 @@
+package com.tbp.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AmadeusTokenManagerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RestTemplate restTemplate = mock(RestTemplate.class);
+    private AmadeusTokenManager tokens;
+
+    @BeforeEach
+    void setUp() {
+        MockEnvironment environment = new MockEnvironment();
+        environment.setConversionService(new ApplicationConversionService());
+        UpstreamResilience resilience = new UpstreamResilience();
+        ReflectionTestUtils.setField(resilience, "environment", environment);
+        ReflectionTestUtils.setField(resilience, "meterRegistry", meterRegistry);
+        resilience.init();
+
+        tokens = new AmadeusTokenManager();
+        ReflectionTestUtils.setField(tokens, "amadeusBaseUrl", "http://localhost");
+        ReflectionTestUtils.setField(tokens, "amadeusApiKey", "key");
+        ReflectionTestUtils.setField(tokens, "amadeusApiSecret", "secret");
+        ReflectionTestUtils.setField(tokens, "refreshAhead", Duration.ofSeconds(60));
+        ReflectionTestUtils.setField(tokens, "waitTimeout", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(tokens, "defaultLifetime", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(tokens, "minRefreshDelay", Duration.ofSeconds(10));
+        ReflectionTestUtils.setField(tokens, "restTemplate", restTemplate);
+        ReflectionTestUtils.setField(tokens, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(tokens, "resilience", resilience);
+        tokens.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        tokens.shutdown();
+    }
+
+    @Test
+    void missingExpiresInFallsBackToTheDefaultLifetime() throws Exception {
+        respondWith(Map.of("access_token", "no-expiry"));
+
+        assertEquals("no-expiry", tokens.getAccessToken());
+        Thread.sleep(300);
+        assertEquals("no-expiry", tokens.getAccessToken());
+
+        verifyTokenRequests(1);
+        assertEquals(1.0, meterRegistry.get("amadeus.token.requests").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void tokenShorterThanRefreshAheadDoesNotRefreshInALoop() throws Exception {
+        respondWith(Map.of("access_token", "short-lived", "expires_in", 30));
+
+        assertEquals("short-lived", tokens.getAccessToken());
+        Thread.sleep(300);
+
+        verifyTokenRequests(1);
+    }
+
+    @Test
+    void searchesDoNotRefreshAShortLivedTokenOnEveryCall() throws Exception {
+        respondWith(Map.of("access_token", "short-lived", "expires_in", 30));
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals("short-lived", tokens.getAccessToken());
+            Thread.sleep(10);
+        }
+
+        verifyTokenRequests(1);
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private void respondWith(Map body) {
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class), eq(Map.class)))
+                .thenReturn(ResponseEntity.ok(body));
+    }
+
+    private void verifyTokenRequests(int expected) {
+        verify(restTemplate, times(expected))
+                .exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class), eq(Map.class));
+    }
+}
@@ -0,0 +1,67 @@
+package com.tbp.service;
+
+import com.tbp.model.Booking;
+import com.tbp.model.ProductType;
+import com.tbp.model.User;
+import com.tbp.repository.BookingRepository;
+import com.tbp.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class BookingBackfillTest {
+
+    @Autowired
+    private BookingBackfill backfill;
+    @Autowired
+    private BookingRepository bookingRepo;
+    @Autowired
+    private UserRepository userRepo;
+
+    @Test
+    void fillsEachLegacyRowOnceAndBumpsOnlyOwnersOfTypedRows() {
+        User typed = user("typed");
+        User unknown = user("unknown");
+        long flight = legacy(typed, "Flight", BookingDetails.flight("AI101", "DEL", "BOM", "2025-10-20"));
+        long train = legacy(unknown, "Train", "Rajdhani to Mumbai");
+
+        backfill.backfill();
+
+        assertEquals(ProductType.FLIGHT, bookingRepo.findById(flight).orElseThrow().getProductType());
+        Booking skipped = bookingRepo.findById(train).orElseThrow();
+        assertNull(skipped.getProductType());
+        assertTrue(skipped.isTypeUnknown());
+        assertEquals(1, version(typed));
+        assertEquals(0, version(unknown));
+
+        // Nothing left to scan, so a restart invalidates no dashboard
+        assertEquals(0, backfill.backfill());
+        assertEquals(1, version(typed));
+        assertEquals(0, version(unknown));
+    }
+
+    private User user(String name) {
+        User user = new User();
+        user.setEmail("backfill-" + name + "-" + System.nanoTime() + "@example.com");
+        user.setPassword("{noop}secret");
+        return userRepo.save(user);
+    }
+
+    // Saved as a row from before the typed columns existed
+    private long legacy(User user, String type, String details) {
+        Booking booking = new Booking();
+        booking.setUser(user);
+        booking.setType(type);
+        booking.setDetails(details);
+        return bookingRepo.save(booking).getId();
+    }
+
+    private long version(User user) {
+        return userRepo.findById(user.getId()).orElseThrow().getDataVersion();
+    }
+}
@@ -0,0 +1,71 @@
+package com.tbp.service;
+
+import com.tbp.model.Booking;
+import com.tbp.model.ProductType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BookingDetailsTest {
+
+    @Test
+    void parsesFlightDetails() {
+        Booking booking = legacy("Flight", BookingDetails.flight("AI101", "DEL", "BOM", "2025-10-20"));
+
+        assertTrue(BookingDetails.populate(booking));
+
+        assertEquals(ProductType.FLIGHT, booking.getProductType());
+        assertEquals("DEL", booking.getOrigin());
+        assertEquals("BOM", booking.getDestination());
+        assertEquals(LocalDate.of(2025, 10, 20), booking.getStartDate());
+        assertEquals("AI101", booking.getProviderReference());
+    }
+
+    @Test
+    void parsesHotelNamesContainingSeparators() {
+        Booking booking = legacy("Hotel", BookingDetails.hotel("Inn in the Park", "Paris", "2025-11-01", "2025-11-04"));
+
+        assertTrue(BookingDetails.populate(booking));
+
+        assertEquals(ProductType.HOTEL, booking.getProductType());
+        assertNull(booking.getOrigin());
+        assertEquals("Paris", booking.getDestination());
+        assertEquals(LocalDate.of(2025, 11, 1), booking.getStartDate());
+        assertEquals(LocalDate.of(2025, 11, 4), booking.getEndDate());
+        assertEquals("Inn in the Park", booking.getProviderReference());
+    }
+
+    @Test
+    void parsesCabPickupDateTime() {
+        Booking booking = legacy("Cab", BookingDetails.cab("Airport T2", "Central Station", "2025-12-24T18:30"));
+
+        assertTrue(BookingDetails.populate(booking));
+
+        assertEquals(ProductType.CAB, booking.getProductType());
+        assertEquals("Airport T2", booking.getOrigin());
+        assertEquals("Central Station", booking.getDestination());
+        assertEquals(LocalDate.of(2025, 12, 24), booking.getStartDate());
+    }
+
+    @Test
+    void keepsTypeWhenDetailsAreFreeText() {
+        Booking booking = legacy("hotel", "Late checkout requested");
+
+        assertFalse(BookingDetails.populate(booking));
+
+        assertEquals(ProductType.HOTEL, booking.getProductType());
+        assertNull(booking.getStartDate());
+    }
+
+    private static Booking legacy(String type, String details) {
+        Booking booking = new Booking();
+        booking.setType(type);
+        booking.setDetails(details);
+        return booking;
+    }
+}
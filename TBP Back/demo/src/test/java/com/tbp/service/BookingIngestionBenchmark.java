@@ -0,0 +1,85 @@
+package com.tbp.service;
+
+import com.tbp.model.Booking;
+import com.tbp.model.User;
+import com.tbp.model.UserProfile;
+import com.tbp.repository.BookingRepository;
+import com.tbp.repository.UserRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Load test for booking writes: many concurrent clients against the 10-connection pool, once
+ * with a JPA save per booking (the {@code direct} mode) and once through the batch writer. Run
+ * with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {"booking.ingest.mode=batched", "spring.datasource.hikari.maximum-pool-size=10"})
+class BookingIngestionBenchmark {
+
+    private static final int CLIENTS = 64;
+    private static final int WARMUP = 5_000;
+    private static final int BOOKINGS = 20_000;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepo;
+    @Autowired
+    private UserLookupService userLookup;
+    @Autowired
+    private UserRepository userRepo;
+
+    @Test
+    void batchedIngestionOutperformsPerRequestSave() throws Exception {
+        UserProfile user = user();
+        Function<Booking, Booking> direct = booking -> {
+            booking.setUser(userLookup.reference(user));
+            return bookingRepo.save(booking);
+        };
+        Function<Booking, Booking> batched = booking -> bookingService.create(user, booking);
+
+        run(direct, WARMUP);
+        run(batched, WARMUP);
+        double directPerSecond = run(direct, BOOKINGS);
+        double batchedPerSecond = run(batched, BOOKINGS);
+
+        System.out.printf("Booking inserts with %d clients: per-request save %.0f/s, batched %.0f/s (%.1fx)%n",
+                CLIENTS, directPerSecond, batchedPerSecond, batchedPerSecond / directPerSecond);
+        assertTrue(batchedPerSecond > directPerSecond, "batched ingestion should sustain more bookings per second");
+    }
+
+    private double run(Function<Booking, Booking> create, int bookings) throws Exception {
+        List<Future<Booking>> futures = new ArrayList<>(bookings);
+        long start = System.nanoTime();
+        try (ExecutorService clients = Executors.newFixedThreadPool(CLIENTS)) {
+            for (int i = 0; i < bookings; i++) {
+                Booking booking = BookingServiceBatchedTest.flight("LT" + i);
+                futures.add(clients.submit(() -> create.apply(booking)));
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        for (Future<Booking> future : futures) {
+            assertTrue(future.get().getId() != null);
+        }
+        return bookings * 1e9 / elapsed;
+    }
+
+    private UserProfile user() {
+        User user = new User();
+        user.setEmail("load-" + System.nanoTime() + "@example.com");
+        user.setPassword("{noop}secret");
+        return UserProfile.of(userRepo.save(user));
+    }
+}
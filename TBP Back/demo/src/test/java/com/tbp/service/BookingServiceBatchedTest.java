@@ -0,0 +1,85 @@
+package com.tbp.service;
+
+import com.tbp.model.Booking;
+import com.tbp.model.BookingSummary;
+import com.tbp.model.ProductType;
+import com.tbp.model.User;
+import com.tbp.model.UserProfile;
+import com.tbp.repository.BookingRepository;
+import com.tbp.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@SpringBootTest(properties = "booking.ingest.mode=batched")
+class BookingServiceBatchedTest {
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepo;
+    @Autowired
+    private UserRepository userRepo;
+
+    @Test
+    void concurrentBookingsGetTheirOwnPersistedIds() throws Exception {
+        UserProfile user = user();
+        List<Future<Booking>> futures = new ArrayList<>();
+        try (ExecutorService pool = Executors.newFixedThreadPool(16)) {
+            for (int i = 0; i < 200; i++) {
+                String flight = "TB" + i;
+                futures.add(pool.submit(() -> bookingService.create(user, flight(flight))));
+            }
+        }
+
+        Set<Long> ids = new HashSet<>();
+        for (Future<Booking> future : futures) {
+            Booking booking = future.get();
+            assertNotNull(booking.getId());
+            ids.add(booking.getId());
+            Booking stored = bookingRepo.findById(booking.getId()).orElseThrow();
+            assertEquals(booking.getProviderReference(), stored.getProviderReference());
+        }
+        assertEquals(200, ids.size());
+
+        List<BookingSummary> page = bookingRepo.findByUserIdAndIdLessThanOrderByIdDesc(user.id(), Long.MAX_VALUE, Limit.of(1));
+        assertEquals(ProductType.FLIGHT, page.get(0).productType());
+        assertEquals(LocalDate.of(2025, 10, 20), page.get(0).startDate());
+        assertNotNull(page.get(0).createdAt());
+    }
+
+    private UserProfile user() {
+        User user = new User();
+        user.setEmail("batched-" + System.nanoTime() + "@example.com");
+        user.setPassword("{noop}secret");
+        return UserProfile.of(userRepo.save(user));
+    }
+
+    static Booking flight(String flightNumber) {
+        Booking booking = new Booking();
+        booking.setType(ProductType.FLIGHT.label());
+        booking.setDetails(BookingDetails.flight(flightNumber, "DEL", "BOM", "2025-10-20"));
+        booking.setProductType(ProductType.FLIGHT);
+        booking.setOrigin("DEL");
+        booking.setDestination("BOM");
+        booking.setStartDate(LocalDate.of(2025, 10, 20));
+        booking.setProviderReference(flightNumber);
+        booking.setPrice(new BigDecimal("4999.00"));
+        booking.setCurrency("INR");
+        return booking;
+    }
+}
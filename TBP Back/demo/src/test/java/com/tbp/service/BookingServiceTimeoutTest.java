@@ -0,0 +1,49 @@
+package com.tbp.service;
+
+import com.tbp.model.User;
+import com.tbp.model.UserProfile;
+import com.tbp.repository.BookingRepository;
+import com.tbp.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The writer holds its first booking for max-delay while waiting for more, well past the request's wait
+@SpringBootTest(properties = {
+        "booking.ingest.mode=batched",
+        "booking.ingest.writers=1",
+        "booking.ingest.max-delay=1500ms",
+        "booking.ingest.wait-timeout=200ms"
+})
+class BookingServiceTimeoutTest {
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepo;
+    @Autowired
+    private UserRepository userRepo;
+
+    @Test
+    void bookingThatTimedOutIsNotInsertedLater() throws Exception {
+        User user = new User();
+        user.setEmail("timeout-" + System.nanoTime() + "@example.com");
+        user.setPassword("{noop}secret");
+        UserProfile profile = UserProfile.of(userRepo.save(user));
+
+        ResponseStatusException timedOut = assertThrows(ResponseStatusException.class,
+                () -> bookingService.create(profile, BookingServiceBatchedTest.flight("TB-LATE")));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, timedOut.getStatusCode());
+
+        // Past the writer's flush
+        Thread.sleep(2_500);
+        assertTrue(bookingRepo.countByProductTypeForUser(profile.id()).isEmpty());
+        assertEquals(0, userRepo.findById(profile.id()).orElseThrow().getDataVersion());
+    }
+}
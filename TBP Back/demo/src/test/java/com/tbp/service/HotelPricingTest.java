@@ -0,0 +1,128 @@
+package com.tbp.service;
+
+import com.tbp.service.amadeus.HotelOffer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HotelPricingTest {
+
+    private static final List<String> HOTELS = IntStream.range(0, 45).mapToObj(i -> "H" + i).toList();
+
+    private final List<List<String>> requests = new CopyOnWriteArrayList<>();
+    private HotelPricing pricing;
+
+    @BeforeEach
+    void setUp() {
+        pricing = new HotelPricing();
+        ReflectionTestUtils.setField(pricing, "batchSize", 20);
+        ReflectionTestUtils.setField(pricing, "timeout", Duration.ofMillis(300));
+        ReflectionTestUtils.setField(pricing, "cacheTtl", Duration.ofMinutes(15));
+        ReflectionTestUtils.setField(pricing, "cacheMaxEntries", 1_000L);
+        ReflectionTestUtils.setField(pricing, "threads", 4);
+        ReflectionTestUtils.setField(pricing, "queueCapacity", 10);
+        ReflectionTestUtils.setField(pricing, "meterRegistry", new SimpleMeterRegistry());
+        pricing.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pricing.shutdown();
+    }
+
+    @Test
+    void pricesInConcurrentBatchesAndCachesPerHotelAndStay() {
+        long start = System.nanoTime();
+        Map<String, Optional<HotelOffer>> prices = pricing.prices(HOTELS, "2030-01-10", "2030-01-12", 1, fetch(100));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // Batches start concurrently, so they are recorded in any order
+        assertEquals(List.of(5, 20, 20), requests.stream().map(List::size).sorted().toList());
+        assertTrue(elapsedMs < 250, "batches should overlap, took " + elapsedMs + " ms");
+        assertEquals(45, prices.size());
+        assertEquals(103.0, prices.get("H3").orElseThrow().total());
+        assertFalse(prices.get("H4").isPresent(), "sold out");
+
+        pricing.prices(HOTELS, "2030-01-10", "2030-01-12", 1, fetch(0));
+        assertEquals(3, requests.size());
+
+        // Another stay or party size is priced separately, only for the hotels asked for
+        pricing.prices(HOTELS.subList(0, 5), "2030-01-10", "2030-01-13", 1, fetch(0));
+        pricing.prices(HOTELS.subList(0, 5), "2030-01-10", "2030-01-12", 2, fetch(0));
+        assertEquals(5, requests.size());
+    }
+
+    @Test
+    void slowAndFailedBatchesLeaveTheirHotelsUnpricedAndUncached() {
+        Map<String, Optional<HotelOffer>> prices = pricing.prices(HOTELS, "2030-01-10", "2030-01-12", 1, batch -> {
+            requests.add(batch);
+            if (batch.contains("H0")) {
+                throw new IllegalStateException("upstream error");
+            }
+            if (batch.contains("H20")) {
+                sleep(1_000);
+            }
+            return offers(batch);
+        });
+
+        assertEquals(5, prices.size());
+        assertTrue(prices.containsKey("H40"));
+
+        pricing.prices(HOTELS, "2030-01-10", "2030-01-12", 1, fetch(0));
+        assertEquals(List.of(20, 20), requests.subList(3, requests.size()).stream().map(List::size).toList());
+    }
+
+    @Test
+    void hotelsLeftOutOfAResponseStayUnpricedAndUncached() {
+        Map<String, Optional<HotelOffer>> prices = pricing.prices(HOTELS.subList(0, 10), "2030-01-10", "2030-01-12", 1,
+                batch -> {
+                    requests.add(batch);
+                    return offers(batch.subList(0, 5));
+                });
+
+        assertEquals(5, prices.size());
+        assertFalse(prices.get("H4").isPresent(), "reported sold out");
+        assertFalse(prices.containsKey("H5"));
+
+        pricing.prices(HOTELS.subList(0, 10), "2030-01-10", "2030-01-12", 1, fetch(0));
+        assertEquals(List.of(5), requests.subList(1, requests.size()).stream().map(List::size).toList());
+    }
+
+    private Function<List<String>, List<HotelOffer>> fetch(long latencyMs) {
+        return batch -> {
+            requests.add(batch);
+            sleep(latencyMs);
+            return offers(batch);
+        };
+    }
+
+    // Every fifth hotel is reported sold out
+    private static List<HotelOffer> offers(List<String> batch) {
+        return batch.stream()
+                .map(id -> Integer.parseInt(id.substring(1)) % 5 == 4 ? HotelOffer.soldOut(id)
+                        : new HotelOffer(id, id + "-R0", 100 + Integer.parseInt(id.substring(1)), "EUR"))
+                .toList();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
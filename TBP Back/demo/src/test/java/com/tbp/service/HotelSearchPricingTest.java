@@ -0,0 +1,96 @@
+package com.tbp.service;
+
+import com.tbp.service.amadeus.AmadeusPayloads;
+import com.tbp.service.amadeus.AmadeusStub;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Hotel search against the stubbed hotels-by-city and hotel-offers endpoints: the first 30 of
+ * 45 hotels priced in batches of 20.
+ */
+@SpringBootTest(properties = {
+        "amadeus.api.key=stub", "amadeus.api.secret=stub",
+        "hotel.pricing.batch-size=20",
+        "hotel.pricing.max-hotels=30"
+})
+class HotelSearchPricingTest {
+
+    private static final AmadeusStub amadeus = start();
+
+    @Autowired
+    private ExternalApiService externalApiService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void upstream(DynamicPropertyRegistry registry) {
+        registry.add("amadeus.api.base-url", amadeus::baseUrl);
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        amadeus.close();
+    }
+
+    @Test
+    void hotelsArePricedFromBatchedOffersCheapestFirst() {
+        List<Map<String, Object>> hotels = externalApiService.searchHotels("PAR", "2030-05-01", "2030-05-03", 1);
+
+        // Every fifth priced hotel is sold out; the 15 hotels beyond max-hotels follow unpriced
+        assertEquals(24 + 15, hotels.size());
+        List<Map<String, Object>> priced = hotels.subList(0, 24);
+        for (Map<String, Object> hotel : priced) {
+            double total = AmadeusPayloads.hotelTotal((String) hotel.get("hotelId"));
+            assertEquals(total, hotel.get("totalPrice"));
+            assertEquals(total / 2, hotel.get("pricePerNight"));
+            assertEquals("EUR", hotel.get("currency"));
+        }
+        for (int i = 1; i < priced.size(); i++) {
+            assertTrue((double) priced.get(i - 1).get("pricePerNight") <= (double) priced.get(i).get("pricePerNight"));
+        }
+        for (Map<String, Object> hotel : hotels.subList(24, hotels.size())) {
+            assertNull(hotel.get("pricePerNight"));
+        }
+        assertEquals(2L, amadeus.requestCounts().get(AmadeusStub.HOTEL_OFFERS));
+        assertEquals(30L, amadeus.requestCounts().get(AmadeusStub.HOTEL_IDS));
+
+        // Served from the search and price caches
+        assertEquals(hotels, externalApiService.searchHotels("PAR", "2030-05-01", "2030-05-03", 1));
+        assertEquals(2L, amadeus.requestCounts().get(AmadeusStub.HOTEL_OFFERS));
+
+        // Client metrics are tagged with the URL template, not with each batch's hotel ids
+        Set<String> uris = meterRegistry.find("http.client.requests").timers().stream()
+                .map(timer -> timer.getId().getTag("uri"))
+                .collect(Collectors.toSet());
+        assertTrue(uris.contains("/v3/shopping/hotel-offers?hotelIds={hotelIds}&checkInDate={checkIn}"
+                + "&checkOutDate={checkOut}&adults={adults}&bestRateOnly=true"), "uris " + uris);
+        assertTrue(uris.contains("/v1/reference-data/locations/hotels/by-city?cityCode={cityCode}"), "uris " + uris);
+        assertEquals(3, uris.size(), "uris " + uris);
+    }
+
+    private static AmadeusStub start() {
+        try {
+            return AmadeusStub.start(Duration.ofMillis(20), Duration.ZERO, 0, 45, 100);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
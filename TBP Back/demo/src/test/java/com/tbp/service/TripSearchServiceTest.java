@@ -0,0 +1,138 @@
+package com.tbp.service;
+
+import com.tbp.service.TripSearchService.TripSearch;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TripSearchServiceTest {
+
+    private static final List<Map<String, Object>> FLIGHTS = List.of(Map.of("flightNumber", "AI101"));
+    private static final List<Map<String, Object>> HOTELS = List.of(Map.of("hotelId", "H1"));
+    private static final List<Map<String, Object>> CABS = List.of(Map.of("cabId", "C1"));
+
+    private final ExternalApiService providers = mock(ExternalApiService.class);
+    private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    private TripSearchService tripSearch;
+
+    @BeforeEach
+    void setUp() {
+        executor.setCorePoolSize(4);
+        executor.initialize();
+        tripSearch = new TripSearchService();
+        ReflectionTestUtils.setField(tripSearch, "timeout", Duration.ofMillis(300));
+        ReflectionTestUtils.setField(tripSearch, "externalApiService", providers);
+        ReflectionTestUtils.setField(tripSearch, "executor", executor);
+        ReflectionTestUtils.setField(tripSearch, "meterRegistry", new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void providersRunConcurrently() {
+        when(providers.searchFlights(any(), any(), any(), anyInt())).thenAnswer(call -> delayed(150, FLIGHTS));
+        when(providers.searchHotels(any(), any(), any(), anyInt())).thenAnswer(call -> delayed(150, HOTELS));
+        when(providers.searchCabs(any(), any(), any())).thenAnswer(call -> delayed(150, CABS));
+
+        Map<String, Object> response = tripSearch.search(fullTrip());
+
+        assertEquals(TripSearchService.OK, provider(response, "flights").get("status"));
+        assertEquals(HOTELS, provider(response, "hotels").get("results"));
+        assertEquals(CABS, provider(response, "cabs").get("results"));
+        // Sequential calls would take 450 ms and overrun the 300 ms deadline
+        assertTrue((long) response.get("elapsedMs") < 300, "elapsed " + response.get("elapsedMs"));
+    }
+
+    @Test
+    void fastProviderReportsItsOwnTimeBehindASlowOne() {
+        when(providers.searchFlights(any(), any(), any(), anyInt())).thenAnswer(call -> delayed(250, FLIGHTS));
+        when(providers.searchHotels(any(), any(), any(), anyInt())).thenAnswer(call -> delayed(20, HOTELS));
+        when(providers.searchCabs(any(), any(), any())).thenReturn(CABS);
+
+        Map<String, Object> response = tripSearch.search(fullTrip());
+
+        // Hotels are collected after flights, but finished long before them
+        assertTrue((long) provider(response, "flights").get("elapsedMs") >= 250);
+        long hotels = (long) provider(response, "hotels").get("elapsedMs");
+        assertTrue(hotels < 150, "hotels elapsed " + hotels);
+    }
+
+    @Test
+    void slowProviderTimesOutAndIsCancelled() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(providers.searchFlights(any(), any(), any(), anyInt())).thenAnswer(call -> delayed(20, FLIGHTS));
+        when(providers.searchHotels(any(), any(), any(), anyInt())).thenAnswer(call -> {
+            try {
+                Thread.sleep(5_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return HOTELS;
+        });
+        when(providers.searchCabs(any(), any(), any())).thenThrow(new IllegalStateException("cab partner down"));
+
+        Map<String, Object> response = tripSearch.search(fullTrip());
+
+        assertEquals(TripSearchService.OK, provider(response, "flights").get("status"));
+        assertEquals(FLIGHTS, provider(response, "flights").get("results"));
+        assertEquals(TripSearchService.TIMEOUT, provider(response, "hotels").get("status"));
+        assertFalse(provider(response, "hotels").containsKey("results"));
+        assertEquals(TripSearchService.ERROR, provider(response, "cabs").get("status"));
+        assertEquals("cab partner down", provider(response, "cabs").get("error"));
+        assertTrue((long) response.get("elapsedMs") < 1_000, "elapsed " + response.get("elapsedMs"));
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS), "timed-out search should be interrupted");
+    }
+
+    @Test
+    void providersWithoutInputsAreSkipped() {
+        when(providers.searchFlights(any(), any(), any(), anyInt())).thenReturn(FLIGHTS);
+        when(providers.searchHotels(any(), any(), any(), anyInt())).thenReturn(HOTELS);
+
+        Map<String, Object> response = tripSearch.search(
+                TripSearch.of("DEL", "BOM", "2025-10-20", null, null, null, null, null, null));
+
+        assertEquals(TripSearchService.OK, provider(response, "hotels").get("status"));
+        verify(providers).searchHotels("BOM", "2025-10-20", "2025-10-21", 1);
+        assertEquals(TripSearchService.SKIPPED, provider(response, "cabs").get("status"));
+        verify(providers, never()).searchCabs(any(), any(), any());
+    }
+
+    private static TripSearch fullTrip() {
+        return TripSearch.of("DEL", "BOM", "2025-10-20", "2025-10-23", 1, null,
+                "BOM Airport", "Marine Drive", "2025-10-20T14:00");
+    }
+
+    private static List<Map<String, Object>> delayed(long millis, List<Map<String, Object>> results)
+            throws InterruptedException {
+        Thread.sleep(millis);
+        return results;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> provider(Map<String, Object> response, String name) {
+        return (Map<String, Object>) response.get(name);
+    }
+}
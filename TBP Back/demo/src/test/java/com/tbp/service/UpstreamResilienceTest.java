@@ -0,0 +1,142 @@
+package com.tbp.service;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UpstreamResilienceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private UpstreamResilience resilience;
+
+    @BeforeEach
+    void setUp() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("upstream.circuit.sliding-window-size", "4")
+                .withProperty("upstream.circuit.minimum-number-of-calls", "4")
+                .withProperty("upstream.circuit.half-open-calls", "1")
+                .withProperty("upstream.circuit.wait-in-open", "30s")
+                .withProperty("upstream.circuit.flightOffers.wait-in-open", "200ms")
+                .withProperty("upstream.bulkhead.hotelsByCity.max-concurrent-calls", "2")
+                .withProperty("upstream.bulkhead.hotelsByCity.queue-capacity", "1")
+                .withProperty("upstream.bulkhead.hotelsByCity.max-wait", "100ms");
+        // Boot's conversion service, which parses durations like "30s" as in the application
+        environment.setConversionService(new ApplicationConversionService());
+        resilience = new UpstreamResilience();
+        ReflectionTestUtils.setField(resilience, "environment", environment);
+        ReflectionTestUtils.setField(resilience, "meterRegistry", meterRegistry);
+        resilience.init();
+    }
+
+    @Test
+    void openCircuitRefusesCallsWithoutRunningThem() {
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        for (int i = 0; i < 4; i++) {
+            assertThrows(ResourceAccessException.class, () -> resilience.call(UpstreamResilience.HOTELS_BY_CITY, () -> {
+                upstreamCalls.incrementAndGet();
+                throw new ResourceAccessException("Read timed out");
+            }));
+        }
+
+        assertThrows(CallNotPermittedException.class,
+                () -> resilience.call(UpstreamResilience.HOTELS_BY_CITY, upstreamCalls::incrementAndGet));
+        assertEquals(4, upstreamCalls.get());
+        assertEquals(1, meterRegistry.get("upstream.circuit.transitions")
+                .tag("name", UpstreamResilience.HOTELS_BY_CITY).tag("to", "OPEN").counter().count());
+        // Other operations keep their own circuit
+        assertEquals(CircuitBreaker.State.CLOSED, resilience.breaker(UpstreamResilience.FLIGHT_OFFERS).getState());
+    }
+
+    @Test
+    void halfOpenProbeClosesCircuitAfterRecovery() throws InterruptedException {
+        for (int i = 0; i < 4; i++) {
+            assertThrows(ResourceAccessException.class, () -> resilience.call(UpstreamResilience.FLIGHT_OFFERS, () -> {
+                throw new ResourceAccessException("Connection refused");
+            }));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, resilience.breaker(UpstreamResilience.FLIGHT_OFFERS).getState());
+
+        Thread.sleep(300);
+
+        assertEquals("ok", resilience.call(UpstreamResilience.FLIGHT_OFFERS, () -> "ok"));
+        assertEquals(CircuitBreaker.State.CLOSED, resilience.breaker(UpstreamResilience.FLIGHT_OFFERS).getState());
+    }
+
+    @Test
+    void clientErrorsDoNotOpenCircuit() {
+        for (int i = 0; i < 8; i++) {
+            assertThrows(HttpClientErrorException.class, () -> resilience.call(UpstreamResilience.FLIGHT_OFFERS, () -> {
+                throw HttpClientErrorException.create(HttpStatus.BAD_REQUEST, "Bad Request", null, null, null);
+            }));
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, resilience.breaker(UpstreamResilience.FLIGHT_OFFERS).getState());
+    }
+
+    @Test
+    void saturatedBulkheadRejectsExcessCallsWithoutAffectingOtherOperations() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(2);
+        try (ExecutorService callers = Executors.newFixedThreadPool(3)) {
+            List<Future<String>> slowCalls = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                slowCalls.add(callers.submit(() -> resilience.call(UpstreamResilience.HOTELS_BY_CITY, () -> {
+                    running.countDown();
+                    await(release);
+                    return "hotels";
+                })));
+            }
+            assertTrue(running.await(1, TimeUnit.SECONDS));
+            // Third caller takes the single queue slot and gives up after max-wait
+            Future<String> queued = callers.submit(() -> resilience.call(UpstreamResilience.HOTELS_BY_CITY, () -> "late"));
+            Thread.sleep(20);
+
+            long start = System.nanoTime();
+            assertThrows(BulkheadFullException.class, () -> resilience.call(UpstreamResilience.HOTELS_BY_CITY, () -> "over"));
+            assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(50), "queue overflow should fail fast");
+            assertEquals(1.0, meterRegistry.get("upstream.bulkhead.saturation").tag("name", UpstreamResilience.HOTELS_BY_CITY).gauge().value());
+            assertEquals("flights", resilience.call(UpstreamResilience.FLIGHT_OFFERS, () -> "flights"));
+
+            ExecutionException timedOut = assertThrows(ExecutionException.class, queued::get);
+            assertInstanceOf(BulkheadFullException.class, timedOut.getCause());
+            assertEquals(2, meterRegistry.get("upstream.bulkhead.rejected").tag("name", UpstreamResilience.HOTELS_BY_CITY).counter().count());
+
+            release.countDown();
+            for (Future<String> call : slowCalls) {
+                assertEquals("hotels", call.get());
+            }
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
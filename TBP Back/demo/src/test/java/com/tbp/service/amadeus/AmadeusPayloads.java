@@ -0,0 +1,133 @@
+package com.tbp.service.amadeus;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Builds Amadeus-shaped JSON payloads for tests and benchmarks. Flight offers carry the same
+ * nesting as real responses (itineraries, segments, traveler pricings, dictionaries), which is
+ * what makes them expensive to materialize as maps.
+ */
+public final class AmadeusPayloads {
+
+    private AmadeusPayloads() {
+    }
+
+    public static String flightOffers(int offers, int adults) {
+        StringBuilder json = new StringBuilder(offers * 4096);
+        json.append("{\"meta\":{\"count\":").append(offers)
+                .append(",\"links\":{\"self\":\"https://test.api.amadeus.com/v2/shopping/flight-offers\"}},\"data\":[");
+        for (int i = 0; i < offers; i++) {
+            if (i > 0) json.append(',');
+            json.append("{\"type\":\"flight-offer\",\"id\":\"").append(i + 1).append("\",\"source\":\"GDS\",")
+                    .append("\"instantTicketingRequired\":false,\"nonHomogeneous\":false,\"oneWay\":false,")
+                    .append("\"lastTicketingDate\":\"2026-11-01\",\"numberOfBookableSeats\":9,\"itineraries\":[");
+            for (int it = 0; it < 2; it++) {
+                if (it > 0) json.append(',');
+                json.append("{\"duration\":\"PT11H25M\",\"segments\":[");
+                for (int seg = 0; seg < 2; seg++) {
+                    if (seg > 0) json.append(',');
+                    String from = seg == 0 ? (it == 0 ? "JFK" : "LAX") : "ORD";
+                    String to = seg == 0 ? "ORD" : (it == 0 ? "LAX" : "JFK");
+                    json.append("{\"departure\":{\"iataCode\":\"").append(from)
+                            .append("\",\"terminal\":\"1\",\"at\":\"2026-11-0").append(1 + it).append("T0").append(6 + seg * 3).append(":15:00\"},")
+                            .append("\"arrival\":{\"iataCode\":\"").append(to)
+                            .append("\",\"terminal\":\"3\",\"at\":\"2026-11-0").append(1 + it).append("T0").append(8 + seg * 3).append(":40:00\"},")
+                            .append("\"carrierCode\":\"UA\",\"number\":\"").append(100 + i * 4 + it * 2 + seg)
+                            .append("\",\"aircraft\":{\"code\":\"32Q\"},\"operating\":{\"carrierCode\":\"UA\"},")
+                            .append("\"duration\":\"PT3H25M\",\"id\":\"").append(it * 2 + seg + 1)
+                            .append("\",\"numberOfStops\":0,\"blacklistedInEU\":false}");
+                }
+                json.append("]}");
+            }
+            json.append("],\"price\":{\"currency\":\"USD\",\"total\":\"").append(250 + i).append(".40\",\"base\":\"")
+                    .append(200 + i).append(".00\",\"fees\":[{\"amount\":\"0.00\",\"type\":\"SUPPLIER\"},")
+                    .append("{\"amount\":\"0.00\",\"type\":\"TICKETING\"}],\"grandTotal\":\"").append(250 + i).append(".40\"},")
+                    .append("\"pricingOptions\":{\"fareType\":[\"PUBLISHED\"],\"includedCheckedBagsOnly\":true},")
+                    .append("\"validatingAirlineCodes\":[\"UA\"],\"travelerPricings\":[");
+            for (int t = 0; t < adults; t++) {
+                if (t > 0) json.append(',');
+                json.append("{\"travelerId\":\"").append(t + 1)
+                        .append("\",\"fareOption\":\"STANDARD\",\"travelerType\":\"ADULT\",\"price\":{\"currency\":\"USD\",")
+                        .append("\"total\":\"125.20\",\"base\":\"100.00\"},\"fareDetailsBySegment\":[");
+                for (int seg = 0; seg < 4; seg++) {
+                    if (seg > 0) json.append(',');
+                    json.append("{\"segmentId\":\"").append(seg + 1)
+                            .append("\",\"cabin\":\"ECONOMY\",\"fareBasis\":\"KAA0AFEN\",\"brandedFare\":\"BASIC\",")
+                            .append("\"class\":\"K\",\"includedCheckedBags\":{\"quantity\":1},")
+                            .append("\"amenities\":[{\"description\":\"CHECKED BAG 1PC\",\"isChargeable\":false,")
+                            .append("\"amenityType\":\"BAGGAGE\"},{\"description\":\"SNACK\",\"isChargeable\":false,")
+                            .append("\"amenityType\":\"MEAL\"}]}");
+                }
+                json.append("]}");
+            }
+            json.append("]}");
+        }
+        json.append("],\"dictionaries\":{\"locations\":{\"JFK\":{\"cityCode\":\"NYC\",\"countryCode\":\"US\"},")
+                .append("\"ORD\":{\"cityCode\":\"CHI\",\"countryCode\":\"US\"},\"LAX\":{\"cityCode\":\"LAX\",\"countryCode\":\"US\"}},")
+                .append("\"aircraft\":{\"32Q\":\"AIRBUS A321NEO\"},\"currencies\":{\"USD\":\"US DOLLAR\"},")
+                .append("\"carriers\":{\"UA\":\"UNITED AIRLINES\"}}}");
+        return json.toString();
+    }
+
+    public static String hotelsByCity(int hotels, String cityCode) {
+        StringBuilder json = new StringBuilder(hotels * 256);
+        json.append("{\"data\":[");
+        for (int i = 0; i < hotels; i++) {
+            if (i > 0) json.append(',');
+            json.append("{\"chainCode\":\"HI\",\"iataCode\":\"").append(cityCode).append("\",\"dupeId\":")
+                    .append(700000000 + i).append(",\"name\":\"HOTEL ").append(i + 1)
+                    .append("\",\"hotelId\":\"HI").append(cityCode).append(String.format("%03d", i))
+                    .append("\",\"geoCode\":{\"latitude\":40.7").append(i % 10)
+                    .append(",\"longitude\":-73.9").append(i % 10)
+                    .append("},\"address\":{\"countryCode\":\"US\"},\"lastUpdate\":\"2026-06-01T10:00:00\"}");
+        }
+        json.append("],\"meta\":{\"count\":").append(hotels).append("}}");
+        return json.toString();
+    }
+
+    /**
+     * A hotel-offers response for the given hotel IDs: two room offers each, the cheaper one at
+     * {@link #hotelTotal}. Every fifth hotel (by the number at the end of its ID) is listed as not
+     * available.
+     */
+    public static String hotelOffers(List<String> hotelIds, String checkIn, String checkOut) {
+        StringBuilder json = new StringBuilder(hotelIds.size() * 1024);
+        json.append("{\"data\":[");
+        boolean first = true;
+        for (String hotelId : hotelIds) {
+            double total = hotelTotal(hotelId);
+            if (!first) json.append(',');
+            first = false;
+            if (total < 0) {
+                json.append("{\"type\":\"hotel-offers\",\"hotel\":{\"type\":\"hotel\",\"hotelId\":\"").append(hotelId)
+                        .append("\"},\"available\":false}");
+                continue;
+            }
+            json.append("{\"type\":\"hotel-offers\",\"hotel\":{\"type\":\"hotel\",\"hotelId\":\"").append(hotelId)
+                    .append("\",\"chainCode\":\"HI\",\"name\":\"HOTEL ").append(hotelId)
+                    .append("\",\"cityCode\":\"PAR\",\"latitude\":48.85,\"longitude\":2.35},\"available\":true,\"offers\":[");
+            for (int room = 0; room < 2; room++) {
+                if (room > 0) json.append(',');
+                json.append("{\"id\":\"").append(hotelId).append("-R").append(room)
+                        .append("\",\"checkInDate\":\"").append(checkIn).append("\",\"checkOutDate\":\"").append(checkOut)
+                        .append("\",\"room\":{\"type\":\"A0").append(room)
+                        .append("\",\"description\":{\"text\":\"Standard room, free wifi\",\"lang\":\"EN\"}},")
+                        .append("\"guests\":{\"adults\":1},\"price\":{\"currency\":\"EUR\",\"base\":\"")
+                        .append(String.format(Locale.ROOT, "%.2f", total * 0.9 + room * 40))
+                        .append("\",\"total\":\"").append(String.format(Locale.ROOT, "%.2f", total + room * 40))
+                        .append("\"},\"policies\":{\"paymentType\":\"guarantee\"}}");
+            }
+            json.append("]}");
+        }
+        json.append("]}");
+        return json.toString();
+    }
+
+    /** The cheapest total the stub quotes for a hotel, or -1 when it is sold out. */
+    public static double hotelTotal(String hotelId) {
+        String digits = hotelId.replaceAll("\\D", "");
+        int number = digits.isEmpty() ? 0 : Integer.parseInt(digits);
+        return number % 5 == 4 ? -1 : 100 + number;
+    }
+}
@@ -0,0 +1,83 @@
+package com.tbp.service.amadeus;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares bytes allocated per flight-offers response between the previous approach
+ * (deserialize into nested maps, then walk them) and the streaming parser.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class AmadeusResponseParserBenchmark {
+
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 500;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AmadeusResponseParser parser = new AmadeusResponseParser();
+
+    @Test
+    void streamingAllocatesLessThanMapDeserialization() throws Exception {
+        byte[] payload = AmadeusPayloads.flightOffers(50, 2).getBytes(StandardCharsets.UTF_8);
+
+        long mapBytes = allocatedPerCall(() -> extractFromMap(objectMapper.readValue(payload, Map.class)));
+        long streamingBytes = allocatedPerCall(() -> parser.parseFlightOffers(new ByteArrayInputStream(payload))
+                .stream().map(FlightOffer::toMap).toList());
+
+        System.out.printf("flight-offers payload %d KB: map %d KB/response, streaming %d KB/response (%.1fx)%n",
+                payload.length / 1024, mapBytes / 1024, streamingBytes / 1024, (double) mapBytes / streamingBytes);
+        assertTrue(streamingBytes < mapBytes, "streaming parser should allocate less than map deserialization");
+    }
+
+    private long allocatedPerCall(Call call) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            call.run();
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < ITERATIONS; i++) {
+            call.run();
+        }
+        return (threads.getCurrentThreadAllocatedBytes() - before) / ITERATIONS;
+    }
+
+    // The transform ExternalApiService used before the streaming parser
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> extractFromMap(Map<String, Object> response) {
+        List<Map<String, Object>> flights = (List<Map<String, Object>>) response.get("data");
+        return flights.stream().map(flight -> {
+            Map<String, Object> result = new HashMap<>();
+            result.put("flightNumber", flight.get("id"));
+            result.put("price", flight.get("price"));
+            result.put("currency", "USD");
+            List<Map<String, Object>> itineraries = (List<Map<String, Object>>) flight.get("itineraries");
+            if (itineraries != null && !itineraries.isEmpty()) {
+                List<Map<String, Object>> segments = (List<Map<String, Object>>) itineraries.get(0).get("segments");
+                if (segments != null && !segments.isEmpty()) {
+                    Map<String, Object> segment = segments.get(0);
+                    result.put("from", segment.get("departure"));
+                    result.put("to", segment.get("arrival"));
+                    result.put("departureTime", segment.get("departure"));
+                    result.put("arrivalTime", segment.get("arrival"));
+                }
+            }
+            return result;
+        }).toList();
+    }
+
+    @FunctionalInterface
+    private interface Call {
+        Object run() throws Exception;
+    }
+}
@@ -0,0 +1,63 @@
+package com.tbp.service.amadeus;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class AmadeusResponseParserTest {
+
+    private final AmadeusResponseParser parser = new AmadeusResponseParser();
+
+    @Test
+    void readsPriceAndFirstSegmentOfEachOffer() throws IOException {
+        List<FlightOffer> offers = parser.parseFlightOffers(stream(AmadeusPayloads.flightOffers(3, 2)));
+
+        assertEquals(3, offers.size());
+        FlightOffer first = offers.get(0);
+        assertEquals("1", first.id());
+        assertEquals("UA100", first.flightNumber());
+        assertEquals("JFK", first.from());
+        assertEquals("ORD", first.to());
+        assertEquals("2026-11-01T06:15:00", first.departureTime());
+        assertEquals("2026-11-01T08:40:00", first.arrivalTime());
+        assertEquals(250.40, first.price(), 0.001);
+        assertEquals("USD", first.currency());
+        assertEquals(252.40, offers.get(2).price(), 0.001);
+    }
+
+    @Test
+    void readsHotelsByCity() throws IOException {
+        List<HotelSummary> hotels = parser.parseHotels(stream(AmadeusPayloads.hotelsByCity(2, "PAR")));
+
+        assertEquals(List.of(new HotelSummary("HIPAR000", "HOTEL 1", "PAR"),
+                new HotelSummary("HIPAR001", "HOTEL 2", "PAR")), hotels);
+    }
+
+    @Test
+    void readsCheapestOfferOfEachHotelAndSoldOutHotels() throws IOException {
+        List<HotelOffer> offers = parser.parseHotelOffers(stream(AmadeusPayloads.hotelOffers(
+                List.of("HIPAR000", "HIPAR004", "HIPAR007"), "2026-11-01", "2026-11-03")));
+
+        assertEquals(List.of(new HotelOffer("HIPAR000", "HIPAR000-R0", 100.0, "EUR"),
+                HotelOffer.soldOut("HIPAR004"),
+                new HotelOffer("HIPAR007", "HIPAR007-R0", 107.0, "EUR")), offers);
+    }
+
+    @Test
+    void returnsNullWithoutDataArray() throws IOException {
+        assertNull(parser.parseFlightOffers(stream("{\"errors\":[{\"status\":400,\"code\":477}]}")));
+        assertNull(parser.parseHotels(stream("{}")));
+        assertNull(parser.parseHotelOffers(stream("{\"errors\":[{\"status\":400,\"code\":1257}]}")));
+    }
+
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
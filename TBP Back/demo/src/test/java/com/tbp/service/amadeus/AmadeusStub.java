@@ -0,0 +1,155 @@
+package com.tbp.service.amadeus;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Local stand-in for the Amadeus token, flight-offers, hotels-by-city and hotel-offers
+ * endpoints; hotel offers are priced per requested hotel by {@link AmadeusPayloads#hotelOffers}. Searches
+ * answer after {@code latency} (plus up to {@code jitter}), and a share of them given by
+ * {@code errorRate} fail with 500 instead. Point {@code amadeus.api.base-url} at {@link #baseUrl()}.
+ */
+public final class AmadeusStub implements AutoCloseable {
+
+    public static final String TOKEN = "token";
+    public static final String FLIGHT_OFFERS = "flightOffers";
+    public static final String HOTELS_BY_CITY = "hotelsByCity";
+    public static final String HOTEL_OFFERS = "hotelOffers";
+    /** Hotel IDs asked for across all hotel-offers requests. */
+    public static final String HOTEL_IDS = "hotelIds";
+    public static final String ERRORS = "errors";
+
+    private static final byte[] TOKEN_BODY = "{\"access_token\":\"stub-token\",\"expires_in\":1799}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] ERROR_BODY = "{\"errors\":[{\"status\":500,\"title\":\"SYSTEM ERROR HAS OCCURRED\"}]}".getBytes(StandardCharsets.UTF_8);
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Duration latency;
+    private final Duration jitter;
+    private final double errorRate;
+    private final byte[] flightOffers;
+    private final byte[] hotels;
+    private final Map<String, LongAdder> requests = new ConcurrentHashMap<>();
+
+    private AmadeusStub(Duration latency, Duration jitter, double errorRate, int offers, int maxConnections) throws IOException {
+        this.latency = latency;
+        this.jitter = jitter;
+        this.errorRate = errorRate;
+        this.flightOffers = AmadeusPayloads.flightOffers(offers, 1).getBytes(StandardCharsets.UTF_8);
+        this.hotels = AmadeusPayloads.hotelsByCity(offers, "PAR").getBytes(StandardCharsets.UTF_8);
+        // The JDK server closes idle keep-alive connections beyond 200 by default
+        System.setProperty("sun.net.httpserver.maxIdleConnections", String.valueOf(maxConnections));
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 4_096);
+        server.setExecutor(executor);
+        server.createContext("/v1/security/oauth2/token", exchange -> {
+            count(TOKEN);
+            respond(exchange, 200, TOKEN_BODY);
+        });
+        server.createContext("/v2/shopping/flight-offers", search(FLIGHT_OFFERS, flightOffers));
+        server.createContext("/v1/reference-data/locations/hotels/by-city", search(HOTELS_BY_CITY, hotels));
+        server.createContext("/v3/shopping/hotel-offers", search(HOTEL_OFFERS, exchange -> {
+            Map<String, String> query = query(exchange);
+            List<String> hotelIds = List.of(query.getOrDefault("hotelIds", "").split(","));
+            requests.computeIfAbsent(HOTEL_IDS, k -> new LongAdder()).add(hotelIds.size());
+            return AmadeusPayloads.hotelOffers(hotelIds, query.get("checkInDate"), query.get("checkOutDate"))
+                    .getBytes(StandardCharsets.UTF_8);
+        }));
+        server.start();
+    }
+
+    /**
+     * Starts a stub whose searches take {@code latency} and fail with probability
+     * {@code errorRate}, returning three offers per search.
+     */
+    public static AmadeusStub start(Duration latency, double errorRate) throws IOException {
+        return start(latency, Duration.ZERO, errorRate, 3, 1_000);
+    }
+
+    public static AmadeusStub start(Duration latency, Duration jitter, double errorRate, int offers,
+                                    int maxConnections) throws IOException {
+        return new AmadeusStub(latency, jitter, errorRate, offers, maxConnections);
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /** Requests served per endpoint, plus the number answered with an injected error. */
+    public Map<String, Long> requestCounts() {
+        Map<String, Long> counts = new ConcurrentHashMap<>();
+        requests.forEach((name, count) -> counts.put(name, count.sum()));
+        return counts;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private HttpHandler search(String name, byte[] body) {
+        return search(name, exchange -> body);
+    }
+
+    private HttpHandler search(String name, Function<HttpExchange, byte[]> body) {
+        return exchange -> {
+            count(name);
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long delay = latency.toMillis() + (jitter.isZero() ? 0 : random.nextLong(jitter.toMillis() + 1));
+            if (delay > 0) {
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (errorRate > 0 && random.nextDouble() < errorRate) {
+                count(ERRORS);
+                respond(exchange, 500, ERROR_BODY);
+            } else {
+                respond(exchange, 200, body.apply(exchange));
+            }
+        };
+    }
+
+    private void count(String name) {
+        requests.computeIfAbsent(name, k -> new LongAdder()).increment();
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> query = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        for (String pair : raw == null ? new String[0] : raw.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0) {
+                query.put(pair.substring(0, equals), URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return query;
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
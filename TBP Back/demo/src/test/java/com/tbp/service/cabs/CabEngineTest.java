@@ -0,0 +1,100 @@
+package com.tbp.service.cabs;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CabEngineTest {
+
+    private CabEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        engine = new CabEngine();
+        ReflectionTestUtils.setField(engine, "enabled", true);
+        ReflectionTestUtils.setField(engine, "cellKm", 1.0);
+        ReflectionTestUtils.setField(engine, "nearestDrivers", 3);
+        ReflectionTestUtils.setField(engine, "maxPickupKm", 10.0);
+        ReflectionTestUtils.setField(engine, "positionTtl", Duration.ofMinutes(2));
+        ReflectionTestUtils.setField(engine, "sweepInterval", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(engine, "cityLat", 28.6);
+        ReflectionTestUtils.setField(engine, "cityLon", 77.2);
+        ReflectionTestUtils.setField(engine, "cityRadiusKm", 20.0);
+        ReflectionTestUtils.setField(engine, "baseFare", 2.5);
+        ReflectionTestUtils.setField(engine, "perKm", 1.2);
+        ReflectionTestUtils.setField(engine, "perMinute", 0.25);
+        ReflectionTestUtils.setField(engine, "minimumFare", 6.0);
+        ReflectionTestUtils.setField(engine, "averageSpeedKmh", 30.0);
+        ReflectionTestUtils.setField(engine, "roadFactor", 1.0);
+        ReflectionTestUtils.setField(engine, "surgeZoneKm", 2.0);
+        ReflectionTestUtils.setField(engine, "maxSurge", 3.0);
+        engine.init();
+        engine.updatePosition("NEAR", "Uber", "Standard", 28.601, 77.2, true);
+        engine.updatePosition("FAR", "Lyft", "Premium", 28.65, 77.2, true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.shutdown();
+    }
+
+    @Test
+    void quotesNearestDriversWithFareFromDistanceAndTime() {
+        // About 11.1 km due north: 23 minutes at 30 km/h
+        List<Map<String, Object>> quotes = engine.quotes("28.6,77.2", "28.7,77.2", "2030-02-01T10:30");
+
+        assertEquals(List.of("NEAR", "FAR"), quotes.stream().map(q -> q.get("providerId")).toList());
+        Map<String, Object> near = quotes.get(0);
+        assertEquals("23 minutes", near.get("estimatedDuration"));
+        assertEquals(11.1, near.get("distanceKm"));
+        assertEquals(1, near.get("etaMinutes"));
+        assertEquals(1.0, near.get("surge"));
+        assertEquals(Math.round((2.5 + 1.2 * 11.12 + 0.25 * 23) * 100) / 100.0, (double) near.get("price"), 0.05);
+        // Premium costs twice the standard rate
+        assertEquals(2 * (double) near.get("price"), (double) quotes.get(1).get("price"), 0.01);
+    }
+
+    @Test
+    void surgeRisesWithSearchesPerAvailableDriver() {
+        // One fixed instant, so all searches count towards the same minute
+        double[] pickup = {28.6, 77.2};
+        long now = System.currentTimeMillis();
+        double first = engine.surge(pickup, now);
+        for (int i = 0; i < 10; i++) {
+            engine.surge(pickup, now);
+        }
+        double busy = engine.surge(pickup, now);
+        double nextMinute = engine.surge(pickup, now + 60_000);
+
+        assertEquals(1.0, first);
+        assertEquals(3.0, busy);
+        assertEquals(1.0, nextMinute);
+    }
+
+    @Test
+    void unavailableDriversAndPlacesOutOfRangeGetNoQuotes() {
+        engine.updatePosition("NEAR", "Uber", "Standard", 28.601, 77.2, false);
+        engine.updatePosition("FAR", "Lyft", "Premium", 28.65, 77.2, false);
+
+        assertTrue(engine.quotes("28.6,77.2", "28.7,77.2", null).isEmpty());
+        assertTrue(engine.quotes("", "28.7,77.2", null).isEmpty());
+    }
+
+    @Test
+    void namedPlacesGetStablePointsInTheCity() {
+        double[] airport = engine.locate("Terminal 3");
+
+        assertArrayEquals(airport, engine.locate(" terminal 3 "));
+        assertTrue(DriverIndex.distanceKm(28.6, 77.2, airport[0], airport[1]) <= 20.01);
+        assertArrayEquals(new double[]{12.97, 77.59}, engine.locate("12.97, 77.59"));
+    }
+}
@@ -0,0 +1,113 @@
+package com.tbp.service.cabs;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DriverIndexTest {
+
+    private static final double LAT = 28.6;
+    private static final double LON = 77.2;
+
+    @Test
+    void nearestMatchesAFullScan() {
+        DriverIndex index = new DriverIndex(1);
+        SplittableRandom random = new SplittableRandom(3);
+        List<double[]> positions = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            double[] position = {LAT + random.nextDouble(-0.2, 0.2), LON + random.nextDouble(-0.2, 0.2)};
+            positions.add(position);
+            index.update("D" + i, "Uber", "Standard", position[0], position[1], true, 1_000);
+        }
+
+        for (int query = 0; query < 50; query++) {
+            double lat = LAT + random.nextDouble(-0.25, 0.25);
+            double lon = LON + random.nextDouble(-0.25, 0.25);
+            List<Double> expected = positions.stream()
+                    .map(p -> DriverIndex.distanceKm(lat, lon, p[0], p[1]))
+                    .filter(km -> km <= 8)
+                    .sorted(Comparator.naturalOrder())
+                    .limit(5)
+                    .toList();
+            List<Double> actual = index.nearest(lat, lon, 5, 8, 0).stream().map(DriverIndex.Nearby::distanceKm).toList();
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void movedUnavailableAndStaleDriversAreFoundOnlyWhereTheyAre() {
+        DriverIndex index = new DriverIndex(1);
+        index.update("D1", "Uber", "Standard", LAT, LON, true, 1_000);
+        index.update("D1", "Uber", "Standard", LAT + 0.1, LON, true, 2_000);
+        index.update("D2", "Lyft", "XL", LAT, LON, false, 2_000);
+        index.update("D3", "Ola", "Standard", LAT, LON + 0.001, true, 500);
+
+        assertTrue(index.nearest(LAT, LON, 5, 2, 1_000).isEmpty());
+        assertEquals("D1", index.nearest(LAT + 0.1, LON, 5, 2, 1_000).get(0).driver().id());
+        assertEquals("D3", index.nearest(LAT, LON, 5, 2, 0).get(0).driver().id());
+        assertEquals(3, index.size());
+
+        index.remove("D1");
+        assertTrue(index.nearest(LAT + 0.1, LON, 5, 2, 0).isEmpty());
+        assertEquals(0, index.countAvailable(LAT + 0.1, LON, 1, 0));
+    }
+
+    @Test
+    void staleDriversAreNotCountedAndGetEvicted() {
+        DriverIndex index = new DriverIndex(1);
+        index.update("OLD", "Uber", "Standard", LAT, LON, true, 1_000);
+        index.update("GONE", "Uber", "Standard", LAT, LON, false, 1_000);
+        index.update("NEW", "Lyft", "Standard", LAT, LON + 0.001, true, 5_000);
+
+        assertEquals(2, index.countAvailable(LAT, LON, 2, 0));
+        assertEquals(1, index.countAvailable(LAT, LON, 2, 2_000));
+
+        assertEquals(2, index.evictStale(2_000));
+        assertEquals(1, index.size());
+        assertEquals(1, index.countAvailable(LAT, LON, 2, 0));
+        assertEquals("NEW", index.nearest(LAT, LON, 5, 2, 0).get(0).driver().id());
+        // A driver reporting again after eviction is indexed as new
+        index.update("OLD", "Uber", "Standard", LAT, LON, true, 6_000);
+        assertEquals(2, index.nearest(LAT, LON, 5, 2, 0).size());
+    }
+
+    @Test
+    void concurrentMovesLeaveEveryDriverInExactlyOneCell() throws Exception {
+        DriverIndex index = new DriverIndex(0.5);
+        int drivers = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int seed = t;
+                tasks.add(executor.submit(() -> {
+                    SplittableRandom random = new SplittableRandom(seed);
+                    for (int i = 0; i < 20_000; i++) {
+                        index.update("D" + random.nextInt(drivers), "Uber", "Standard",
+                                LAT + random.nextDouble(-0.05, 0.05), LON + random.nextDouble(-0.05, 0.05), true, 1_000);
+                        index.nearest(LAT, LON, 3, 5, 0);
+                    }
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(drivers, index.size());
+        assertEquals(drivers, index.countAvailable(LAT, LON, 10, 0));
+        assertEquals(drivers, index.nearest(LAT, LON, 1_000, 20, 0).size());
+    }
+}
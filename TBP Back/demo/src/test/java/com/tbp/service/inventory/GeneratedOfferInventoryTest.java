@@ -0,0 +1,113 @@
+package com.tbp.service.inventory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeneratedOfferInventoryTest {
+
+    private GeneratedOfferInventory inventory;
+
+    @BeforeEach
+    void setUp() {
+        inventory = inventory(OfferInventory.Mode.FALLBACK);
+    }
+
+    @Test
+    void flightsMatchTheRouteAndDateCheapestFirst() {
+        List<Map<String, Object>> flights = inventory.flights("del", "BOM", "2030-03-14", OfferInventory.Sort.PRICE);
+
+        assertFalse(flights.isEmpty());
+        assertTrue(flights.size() <= 5);
+        for (Map<String, Object> flight : flights) {
+            assertEquals("DEL", flight.get("from"));
+            assertEquals("BOM", flight.get("to"));
+            assertTrue(((String) flight.get("departureTime")).startsWith("2030-03-14T"));
+        }
+        assertAscending(flights, "price");
+    }
+
+    @Test
+    void flightsCanBeOrderedByDeparture() {
+        List<Map<String, Object>> flights = inventory.flights("DEL", "BOM", "2030-03-14", OfferInventory.Sort.TIME);
+
+        assertFalse(flights.isEmpty());
+        for (int i = 1; i < flights.size(); i++) {
+            String previous = (String) flights.get(i - 1).get("departureTime");
+            assertTrue(previous.compareTo((String) flights.get(i).get("departureTime")) <= 0);
+        }
+    }
+
+    @Test
+    void scheduleRepeatsAfterTheHorizonAndUnknownAirportsFindNothing() {
+        List<Map<String, Object>> first = inventory.flights("DEL", "BOM", "2030-01-01", OfferInventory.Sort.PRICE);
+        List<Map<String, Object>> repeated = inventory.flights("DEL", "BOM", "2030-01-31", OfferInventory.Sort.PRICE);
+
+        assertEquals(first.stream().map(f -> f.get("price")).toList(), repeated.stream().map(f -> f.get("price")).toList());
+        assertTrue(inventory.flights("DEL", "XXX", "2030-01-01", OfferInventory.Sort.PRICE).isEmpty());
+        assertTrue(inventory.flights("DEL", "DEL", "2030-01-01", OfferInventory.Sort.PRICE).isEmpty());
+        assertTrue(inventory.flights("DEL", "BOM", "not a date", OfferInventory.Sort.PRICE).isEmpty());
+    }
+
+    @Test
+    void hotelsAreInTheCityCheapestFirst() {
+        List<Map<String, Object>> hotels = inventory.hotels("BLR", "2030-02-01", "2030-02-03", OfferInventory.Sort.PRICE);
+
+        assertEquals(5, hotels.size());
+        hotels.forEach(hotel -> assertEquals("BLR", hotel.get("city")));
+        assertEquals("2030-02-03", hotels.get(0).get("checkOut"));
+        assertAscending(hotels, "pricePerNight");
+    }
+
+    @Test
+    void cabsAreOrderedByPriceOrDuration() {
+        List<Map<String, Object>> byPrice = inventory.cabs("Airport", "Station", "2030-02-01T10:30", OfferInventory.Sort.PRICE);
+        List<Map<String, Object>> byTime = inventory.cabs("Airport", "Station", "2030-02-01T10:30", OfferInventory.Sort.TIME);
+
+        assertFalse(byPrice.isEmpty());
+        assertAscending(byPrice, "price");
+        for (int i = 1; i < byTime.size(); i++) {
+            assertTrue(minutes(byTime.get(i - 1)) <= minutes(byTime.get(i)));
+        }
+    }
+
+    @Test
+    void nothingIsGeneratedWhenOff() {
+        GeneratedOfferInventory off = inventory(OfferInventory.Mode.OFF);
+
+        assertTrue(off.flights("DEL", "BOM", "2030-03-14", OfferInventory.Sort.PRICE).isEmpty());
+        assertTrue(off.cabs("Airport", "Station", "2030-02-01T10:30", OfferInventory.Sort.PRICE).isEmpty());
+    }
+
+    private static GeneratedOfferInventory inventory(OfferInventory.Mode mode) {
+        GeneratedOfferInventory inventory = new GeneratedOfferInventory();
+        ReflectionTestUtils.setField(inventory, "mode", mode);
+        ReflectionTestUtils.setField(inventory, "seed", 7L);
+        ReflectionTestUtils.setField(inventory, "horizonDays", 30);
+        ReflectionTestUtils.setField(inventory, "airports", new String[]{"DEL", "BOM", "BLR"});
+        ReflectionTestUtils.setField(inventory, "flightsPerRouteDay", 4);
+        ReflectionTestUtils.setField(inventory, "hotelsPerCity", 20);
+        ReflectionTestUtils.setField(inventory, "cabsPerHour", 10);
+        ReflectionTestUtils.setField(inventory, "maxResults", 5);
+        inventory.init();
+        return inventory;
+    }
+
+    private static void assertAscending(List<Map<String, Object>> offers, String field) {
+        for (int i = 1; i < offers.size(); i++) {
+            assertTrue((double) offers.get(i - 1).get(field) <= (double) offers.get(i).get(field),
+                    field + " out of order at " + i);
+        }
+    }
+
+    private static int minutes(Map<String, Object> cab) {
+        return Integer.parseInt(((String) cab.get("estimatedDuration")).split(" ")[0]);
+    }
+}
@@ -0,0 +1,190 @@
+package com.tbp.service.inventory;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ItinerarySearchTest {
+
+    private static final LocalDate DATE = LocalDate.of(2030, 3, 14);
+    private static final int MIN_CONNECTION = 45;
+
+    private static FlightTable table;
+
+    @BeforeAll
+    static void generate() {
+        String[] airports = new String[300];
+        for (int i = 0; i < airports.length; i++) {
+            airports[i] = String.format("X%03d", i);
+        }
+        table = FlightTable.generate(airports, 7, 4, 4, new SplittableRandom(11));
+    }
+
+    @Test
+    void pairsWithoutDirectServiceGetConnectingItineraries() {
+        String[] pair = pairWithoutDirectService();
+        List<Map<String, Object>> itineraries = new ItinerarySearch(table, MIN_CONNECTION, 360, 2, 16)
+                .search(pair[0], pair[1], DATE, 50);
+
+        assertFalse(itineraries.isEmpty());
+        for (Map<String, Object> itinerary : itineraries) {
+            List<Map<String, Object>> segments = segments(itinerary);
+            assertTrue((int) itinerary.get("stops") >= 1 && (int) itinerary.get("stops") <= 2);
+            assertEquals(segments.size() - 1, itinerary.get("stops"));
+            assertEquals(pair[0], segments.get(0).get("from"));
+            assertEquals(pair[1], segments.get(segments.size() - 1).get("to"));
+            assertTrue(((String) itinerary.get("departureTime")).startsWith(DATE + "T"));
+            for (int i = 1; i < segments.size(); i++) {
+                assertEquals(segments.get(i - 1).get("to"), segments.get(i).get("from"));
+                long ground = Duration.between(time(segments.get(i - 1), "arrivalTime"),
+                        time(segments.get(i), "departureTime")).toMinutes();
+                assertTrue(ground >= MIN_CONNECTION && ground <= 360, "layover of " + ground + " minutes");
+            }
+        }
+        for (int i = 1; i < itineraries.size(); i++) {
+            assertTrue(time(itineraries.get(i - 1), "arrivalTime").compareTo(time(itineraries.get(i), "arrivalTime")) <= 0);
+        }
+        for (Map<String, Object> a : itineraries) {
+            for (Map<String, Object> b : itineraries) {
+                assertFalse(a != b && dominates(a, b), a + " dominates " + b);
+            }
+        }
+    }
+
+    @Test
+    void resultsAreTheParetoSetOfAllItineraries() {
+        // With a layover limit past the search window and no label cap, the search is exact
+        ItinerarySearch search = new ItinerarySearch(table, MIN_CONNECTION, 10_000, 2, 10_000);
+        int checked = 0;
+        int itineraries = 0;
+        for (int from = 0; from < table.airports.length && checked < 20; from += 7) {
+            int to = (from * 31 + 17) % table.airports.length;
+            if (to == from) {
+                continue;
+            }
+            Set<String> expected = bruteForce(from, to, 2);
+            Set<String> actual = new HashSet<>();
+            for (Map<String, Object> itinerary : search.search(table.airports[from], table.airports[to], DATE, 10_000)) {
+                actual.add(itinerary.get("arrivalTime") + " " + itinerary.get("price") + " " + itinerary.get("stops"));
+            }
+            assertEquals(expected, actual, table.airports[from] + " to " + table.airports[to]);
+            checked++;
+            itineraries += actual.size();
+        }
+        assertEquals(20, checked);
+        assertTrue(itineraries > 20, "only " + itineraries + " itineraries");
+    }
+
+    @Test
+    void unknownAirportsAndSameOriginAndDestinationFindNothing() {
+        ItinerarySearch search = new ItinerarySearch(table, MIN_CONNECTION, 360, 2, 16);
+
+        assertTrue(search.search("X001", "XXX", DATE, 50).isEmpty());
+        assertTrue(search.search("X001", "X001", DATE, 50).isEmpty());
+        assertTrue(search.search("X001", "X002", null, 50).isEmpty());
+    }
+
+    private static String[] pairWithoutDirectService() {
+        for (int from = 0; from < table.airports.length; from++) {
+            for (int to = 0; to < table.airports.length; to++) {
+                if (from != to && table.find(table.airports[from], table.airports[to], DATE, OfferInventory.Sort.PRICE, 1).isEmpty()
+                        && !new ItinerarySearch(table, MIN_CONNECTION, 360, 2, 16)
+                        .search(table.airports[from], table.airports[to], DATE, 1).isEmpty()) {
+                    return new String[]{table.airports[from], table.airports[to]};
+                }
+            }
+        }
+        throw new AssertionError("every pair has direct service");
+    }
+
+    // Every itinerary of up to maxStops + 1 legs inside the search window, reduced to its Pareto set
+    private static Set<String> bruteForce(int from, int to, int maxStops) {
+        int maxLegs = maxStops + 1;
+        List<int[]> departures = new ArrayList<>(); // {row, departure minute counted from the search date}
+        for (int offset = 0; offset <= maxLegs; offset++) {
+            int day = (table.day(DATE) + offset) % table.horizonDays;
+            for (int airport = 0; airport < table.airports.length; airport++) {
+                int group = airport * table.horizonDays + day;
+                for (int i = table.departureStart[group]; i < table.departureStart[group + 1]; i++) {
+                    int row = table.departures[i];
+                    departures.add(new int[]{row, offset * 1_440 + table.departureMinute[row]});
+                }
+            }
+        }
+        List<int[]> found = new ArrayList<>(); // {arrival, price, legs}
+        for (int[] first : departures) {
+            if (table.origin[first[0]] == from && first[1] < 1_440) {
+                extend(departures, first, from, to, 0, 1, maxLegs, found);
+            }
+        }
+        List<int[]> pareto = new ArrayList<>();
+        for (int[] a : found) {
+            boolean dominated = false;
+            for (int[] b : found) {
+                dominated |= b != a && b[0] <= a[0] && b[1] <= a[1] && b[2] <= a[2] && (b[0] < a[0] || b[1] < a[1] || b[2] < a[2]);
+            }
+            if (!dominated) {
+                pareto.add(a);
+            }
+        }
+        Set<String> result = new HashSet<>();
+        for (int[] itinerary : pareto) {
+            result.add(FlightTable.dateTime(DATE, itinerary[0]) + " " + itinerary[1] / 100.0 + " " + (itinerary[2] - 1));
+        }
+        return result;
+    }
+
+    private static void extend(List<int[]> departures, int[] leg, int from, int to, int price, int legs, int maxLegs,
+                               List<int[]> found) {
+        int row = leg[0];
+        int destination = table.destination[row];
+        int arrival = leg[1] + table.durationMinutes[row];
+        int cost = price + table.priceCents[row];
+        if (destination == from) {
+            return;
+        }
+        if (destination == to) {
+            found.add(new int[]{arrival, cost, legs});
+            return;
+        }
+        if (legs == maxLegs) {
+            return;
+        }
+        for (int[] next : departures) {
+            if (table.origin[next[0]] == destination && next[1] - arrival >= MIN_CONNECTION) {
+                extend(departures, next, from, to, cost, legs + 1, maxLegs, found);
+            }
+        }
+    }
+
+    private static boolean dominates(Map<String, Object> a, Map<String, Object> b) {
+        return time(a, "arrivalTime").compareTo(time(b, "arrivalTime")) <= 0
+                && (double) a.get("price") <= (double) b.get("price")
+                && (int) a.get("stops") <= (int) b.get("stops");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> segments(Map<String, Object> itinerary) {
+        Object segments = itinerary.get("segments");
+        assertNotNull(segments);
+        return (List<Map<String, Object>>) segments;
+    }
+
+    private static LocalDateTime time(Map<String, Object> offer, String field) {
+        return LocalDateTime.parse((String) offer.get(field));
+    }
+}
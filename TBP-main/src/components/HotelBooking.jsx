@@ -239,13 +239,21 @@ const HotelBooking = () => {
                   </Grid>
                   <Grid item xs={12} sm={2}>
                     <Box sx={{ display: 'flex', flexDirection: 'column', alignItems: 'flex-end' }}>
-                      <Typography variant="h6" color="primary">
-                        <AttachMoney fontSize="small" />
-                        {hotel.pricePerNight}
-                      </Typography>
-                      <Typography variant="body2" color="text.secondary">
-                        per night
-                      </Typography>
+                      {hotel.pricePerNight != null ? (
+                        <>
+                          <Typography variant="h6" color="primary">
+                            <AttachMoney fontSize="small" />
+                            {hotel.pricePerNight}
+                          </Typography>
+                          <Typography variant="body2" color="text.secondary">
+                            per night
+                          </Typography>
+                        </>
+                      ) : (
+                        <Typography variant="body2" color="text.secondary">
+                          Price on request
+                        </Typography>
+                      )}
                       <Button 
                         variant="contained" 
                         color="primary"
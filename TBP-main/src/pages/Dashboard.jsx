@@ -8,6 +8,7 @@ const API_BASE_URL = "http://localhost:8081/api";
 const Dashboard = () => {
   const [error, setError] = useState('');
   const [bookings, setBookings] = useState([]);
+  const [bookingCounts, setBookingCounts] = useState({});
   const [loading, setLoading] = useState(true);
   const [profile, setProfile] = useState({});
   const navigate = useNavigate();
@@ -23,25 +24,18 @@ const Dashboard = () => {
       }
 
       try {
-        // Fetch profile data
-        const profileResponse = await fetch(`${API_BASE_URL}/user/profile`, {
+        // Profile, booking counts and the latest bookings in one request; the browser revalidates
+        // it with the ETag, so an unchanged dashboard comes back as 304
+        const response = await fetch(`${API_BASE_URL}/dashboard?recent=6`, {
           headers: { Authorization: `Bearer ${token}` }
         });
-        
-        if (profileResponse.ok) {
-          const profileData = await profileResponse.json();
-          setProfile(profileData);
-        }
 
-        // Fetch booking history
-        const bookingsResponse = await fetch(`${API_BASE_URL}/bookings`, {
-          headers: { Authorization: `Bearer ${token}` }
-        });
-        
-        if (bookingsResponse.ok) {
-          const bookingsData = await bookingsResponse.json();
-          setBookings(bookingsData);
-        } else if (bookingsResponse.status === 401) {
+        if (response.ok) {
+          const data = await response.json();
+          setProfile(data.profile);
+          setBookings(data.recentBookings);
+          setBookingCounts(data.bookingCounts);
+        } else if (response.status === 401) {
           setError("Your session has expired. Please login again.");
           localStorage.removeItem('token');
           localStorage.removeItem('email');
@@ -69,10 +63,10 @@ const Dashboard = () => {
   const goToProfile = () => navigate('/profile');
 
   const getBookingStats = () => {
-    const flightBookings = bookings.filter(b => b.type?.toLowerCase() === 'flight').length;
-    const hotelBookings = bookings.filter(b => b.type?.toLowerCase() === 'hotel').length;
-    const cabBookings = bookings.filter(b => b.type?.toLowerCase() === 'cab').length;
-    const totalBookings = bookings.length;
+    const flightBookings = bookingCounts.flight || 0;
+    const hotelBookings = bookingCounts.hotel || 0;
+    const cabBookings = bookingCounts.cab || 0;
+    const totalBookings = bookingCounts.total || 0;
 
     return { flightBookings, hotelBookings, cabBookings, totalBookings };
   };
@@ -18,16 +18,19 @@ const Profile = () => {
       if (!token) {
         setError("Please login to view profile");
         setLoading(false);
+        setBookingsLoading(false);
         return;
       }
 
       try {
-        const response = await fetch(`${API_BASE_URL}/user/profile`, {
+        // Profile and bookings together, revalidated by the browser with the dashboard's ETag
+        const response = await fetch(`${API_BASE_URL}/dashboard?recent=50`, {
           headers: { Authorization: `Bearer ${token}` }
         });
         if (response.ok) {
           const data = await response.json();
-          setProfile(data);
+          setProfile(data.profile);
+          setBookings(data.recentBookings);
         } else if (response.status === 401) {
           setError("Your session has expired. Please login again.");
           localStorage.removeItem('token');
@@ -39,36 +42,11 @@ const Profile = () => {
         setError("Network error");
       } finally {
         setLoading(false);
-      }
-    };
-
-    const fetchBookings = async () => {
-      if (!token) {
-        setBookingsLoading(false);
-        return;
-      }
-
-      try {
-        const response = await fetch(`${API_BASE_URL}/bookings`, {
-          headers: { Authorization: `Bearer ${token}` }
-        });
-        if (response.ok) {
-          const data = await response.json();
-          setBookings(data);
-        } else if (response.status === 401) {
-          // Session expired, handled in fetchProfile
-        } else {
-          console.error("Failed to load bookings");
-        }
-      } catch (error) {
-        console.error("Network error loading bookings:", error);
-      } finally {
         setBookingsLoading(false);
       }
     };
 
     fetchProfile();
-    fetchBookings();
   }, [token]);
 
   const handleChange = (e) => {